@@ -0,0 +1,166 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Encodes lines for locale-aware sorting. Each line's collation key is computed
+ * once, when the line is read, and written in front of the line as hex:
+ *
+ * key-in-hex TAB line
+ *
+ * Hex digits compare in the same order as the key bytes, and a shorter key
+ * ends at the tab, which sorts before any hex digit. So comparing encoded lines
+ * with String.compareTo gives the locale's order, and the heaps and merges
+ * compare plain strings instead of calling the Collator on every comparison.
+ * Lines with equal keys are ordered by their text.
+ */
+class CollationEncoder {
+
+    // Hex digits in ascending order
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Declare variables
+    private final Locale locale;
+    private final Collator collator;
+    private final Collator primary;
+
+    /**
+     * Constructor for the CollationEncoder class.
+     *
+     * @param locale The locale whose collation rules (accents, case) are used.
+     */
+    CollationEncoder(Locale locale) {
+
+        // Initialise variables
+        this.locale = locale;
+        this.collator = Collator.getInstance(locale);
+        this.primary = Collator.getInstance(locale);
+        this.primary.setStrength(Collator.PRIMARY);
+    }
+
+    /**
+     * Parses a locale from a BCP 47 language tag such as "de-DE" or "sv".
+     *
+     * @param tag The language tag.
+     * @return The encoder for the locale.
+     * @throws IllegalArgumentException If the tag is not a valid locale.
+     */
+    static CollationEncoder forTag(String tag) {
+
+        // Return the encoder for the parsed locale
+        return new CollationEncoder(parseTag(tag));
+    }
+
+    /**
+     * Parses a BCP 47 language tag, rejecting tags that Locale.forLanguageTag
+     * doesn't understand (it returns the root locale, "und", for them, which
+     * would silently collate in a different order).
+     *
+     * @param tag The language tag.
+     * @return The locale.
+     * @throws IllegalArgumentException If the tag is not a valid locale.
+     */
+    static Locale parseTag(String tag) {
+
+        // Parse the language tag
+        Locale locale = Locale.forLanguageTag(tag);
+
+        // Check if the tag was not understood
+        if (locale.getLanguage().isEmpty() || locale.toLanguageTag().equals("und")) {
+
+            // Throw an exception
+            throw new IllegalArgumentException("Unknown locale " + tag);
+        }
+
+        // Return the locale
+        return locale;
+    }
+
+    /**
+     * Get the locale.
+     *
+     * @return The locale.
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Prefixes a line with its collation key.
+     *
+     * @param line The line.
+     * @return The encoded line.
+     */
+    String encode(String line) {
+
+        // Compute the collation key bytes (Collator is not thread-safe)
+        byte[] key;
+        synchronized (collator) {
+            key = collator.getCollationKey(line).toByteArray();
+        }
+
+        // Create a builder for the hex key, the tab and the line
+        StringBuilder encoded = new StringBuilder(2 * key.length + 1 + line.length());
+
+        // for each key byte
+        for (byte b : key) {
+
+            // Append the byte as two hex digits
+            encoded.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+
+        // Append the separator and the line
+        return encoded.append('\t').append(line).toString();
+    }
+
+    /**
+     * Removes the collation key from an encoded line.
+     *
+     * @param encoded The encoded line.
+     * @return The original line.
+     */
+    static String decode(String encoded) {
+
+        // Return the text after the separator
+        return encoded.substring(encoded.indexOf('\t') + 1);
+    }
+
+    /**
+     * Compares two lines in the locale's order.
+     *
+     * @param a The first line.
+     * @param b The second line.
+     * @return A negative, zero or positive number as a sorts before, with or
+     *         after b.
+     */
+    int compare(String a, String b) {
+
+        // Compare the collation keys, then the text (as the encoded order does)
+        int order;
+        synchronized (collator) {
+            order = collator.compare(a, b);
+        }
+        return order != 0 ? order : a.compareTo(b);
+    }
+
+    /**
+     * Compares two strings at the collator's primary strength (base letters
+     * only, ignoring accents and case), used for prefix lookups in
+     * locale-sorted output.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @return A negative, zero or positive number as a sorts before, with or
+     *         after b at primary strength.
+     */
+    int comparePrimary(String a, String b) {
+
+        // Compare at primary strength
+        synchronized (primary) {
+            return primary.compare(a, b);
+        }
+    }
+}
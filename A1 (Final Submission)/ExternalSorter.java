@@ -0,0 +1,616 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Embeddable external sort built on the same run creation and k-way merge as
+ * XSort, for callers that want to sort in-process instead of forking a JVM.
+ *
+ * Input is taken from an Iterator, a Stream or a ReadableByteChannel. Runs are
+ * written to the configured temp directories, merged down to at most 'fanIn'
+ * runs, and the final merge is returned as a lazy iterator (or stream) so the
+ * caller can consume lines as they are produced. Closing the iterator deletes
+ * the sort's run files.
+ *
+ * Example:
+ * try (ExternalSorter.CloseableIterator<String> sorted =
+ *         new ExternalSorter(new ExternalSorter.Config().fanIn(32)).sort(lines)) {
+ *     while (sorted.hasNext()) { ... }
+ * }
+ */
+public class ExternalSorter {
+
+    // Declare variables
+    private final Config config;
+    private final RunDirectories directories;
+    private final CollationEncoder collation;
+
+    /**
+     * Constructor for the ExternalSorter class.
+     *
+     * @param config The sort configuration.
+     */
+    public ExternalSorter(Config config) {
+
+        // Initialise variables
+        this.config = config;
+        this.directories = new RunDirectories(config.tempDirs, config.freeSpacePlacement
+                ? RunDirectories.Placement.FREE_SPACE : RunDirectories.Placement.ROUND_ROBIN);
+        this.collation = config.locale == null ? null : new CollationEncoder(config.locale);
+    }
+
+    /**
+     * Sorts the lines of an iterator. Run files hold one line per text line, so
+     * a line containing '\n' or '\r' is rejected as soon as it is reached (and
+     * any runs already written are deleted) rather than being split.
+     *
+     * @param lines The lines to sort.
+     * @return The sorted lines, merged lazily as they are read.
+     * @throws IOException If an I/O error occurs.
+     * @throws IllegalArgumentException If a line contains a line terminator.
+     */
+    public CloseableIterator<String> sort(Iterator<String> lines) throws IOException {
+
+        // List to store lines for each run
+        List<String> run = new ArrayList<>();
+
+        // Estimated heap size of the lines in the current run
+        long runBytes = 0;
+
+        // List to store paths of run files
+        List<String> runFiles = new ArrayList<>();
+
+        // Number of lines read so far
+        long lineCount = 0;
+
+        // try-catch block to delete the runs if the sort fails
+        try {
+
+            // Read the input line by line and create runs
+            while (lines.hasNext()) {
+
+                // Get the next line
+                String line = lines.next();
+
+                // Check if the line would be split in a run file
+                if (line.indexOf('\n') >= 0 || line.indexOf('\r') >= 0) {
+
+                    // Throw an exception
+                    throw new IllegalArgumentException("Line " + (lineCount + 1) + " contains a line terminator.");
+                }
+                lineCount++;
+
+                // Check if sorting in a locale's order
+                if (collation != null) {
+
+                    // Prefix the line with its collation key
+                    line = collation.encode(line);
+                }
+
+                // add line to list
+                run.add(line);
+
+                // Add the line's estimated size (object header, array and chars)
+                runBytes += 64 + 2L * line.length();
+
+                // Check if the run is full
+                if (run.size() == config.runLength || runBytes >= config.memoryBytes) {
+
+                    // Write the sorted run to a temp directory
+                    runFiles.add(XSort.writeSortedRun(run, directories.next(), config.comparator));
+
+                    // Clear lines for the next run
+                    run.clear();
+                    runBytes = 0;
+                }
+            }
+
+            // Check if the whole input fit in memory
+            if (runFiles.isEmpty()) {
+
+                // Create a new heap to sort the lines in memory without writing any runs
+                Heap heap = new Heap(run.size(), config.comparator);
+
+                // for each line in the run
+                for (String line : run) {
+
+                    // Insert the line into the heap
+                    heap.insert(line);
+                }
+
+                // List to store the lines in sorted order
+                List<String> sorted = new ArrayList<>(run.size());
+
+                // while heap is not empty
+                while (!heap.isEmpty()) {
+
+                    // Remove the smallest line from the heap
+                    sorted.add(heap.remove());
+                }
+
+                // Return an iterator over the sorted lines
+                return new MergeIterator(null, sorted.iterator(), runFiles, collation != null);
+            }
+
+            // check if lines is not empty
+            if (!run.isEmpty()) {
+
+                // Write the last sorted run to a temp directory
+                runFiles.add(XSort.writeSortedRun(run, directories.next(), config.comparator));
+            }
+
+            // Merge the runs until the final merge fits in one group
+            runFiles = mergeToFanIn(runFiles);
+
+            // List to store readers for the final runs
+            List<BufferedReader> readers = new ArrayList<>();
+
+            // for each final run
+            for (String runFile : runFiles) {
+
+                // Add a reader that verifies the run's checksum
+                readers.add(new XSort.ChecksumReader(runFile));
+            }
+
+            // Return an iterator over the final merge
+            return new MergeIterator(new RunMerger(readers, config.comparator), null, runFiles, collation != null);
+
+            // Catch exception
+        } catch (IOException | RuntimeException e) {
+
+            // Delete the runs written so far and rethrow
+            deleteRuns(runFiles);
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts the lines of a stream.
+     *
+     * @param lines The lines to sort.
+     * @return The sorted lines, merged lazily as they are read.
+     * @throws IOException If an I/O error occurs.
+     */
+    public CloseableIterator<String> sort(Stream<String> lines) throws IOException {
+
+        // try with resources to close the input stream once it is consumed
+        try (Stream<String> input = lines) {
+
+            // Sort the stream's lines
+            return sort(input.iterator());
+        }
+    }
+
+    /**
+     * Sorts the lines read from a channel, decoded with the configured charset.
+     *
+     * @param channel The channel to read lines from.
+     * @return The sorted lines, merged lazily as they are read.
+     * @throws IOException If an I/O error occurs.
+     */
+    public CloseableIterator<String> sort(ReadableByteChannel channel) throws IOException {
+
+        // try-catch block
+        try {
+
+            // Check if the charset can be split on newline bytes
+            if (LineReader.supports(config.charset)) {
+
+                // Sort the lines of a LineReader
+                return sort(new LineReader(channel, config.charset).lines());
+            }
+
+            // Create a BufferedReader to decode other charsets (such as UTF-16)
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, config.charset.newDecoder(), -1));
+
+            // Sort the lines of the reader
+            return sort(reader.lines().iterator());
+
+            // Catch exception thrown while reading the lines
+        } catch (UncheckedIOException e) {
+
+            // Rethrow the I/O error
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sorts the lines of a stream and returns the sorted lines as a stream.
+     * Closing the returned stream deletes the sort's run files.
+     *
+     * @param lines The lines to sort.
+     * @return The sorted lines as a lazy stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    public Stream<String> sortedStream(Stream<String> lines) throws IOException {
+
+        // Sort the lines
+        CloseableIterator<String> sorted = sort(lines);
+
+        // Wrap the iterator in a stream that closes it
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(sorted,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(sorted::close);
+    }
+
+    /**
+     * Merges runs in groups of 'fanIn' until at most 'fanIn' runs are left,
+     * deleting each run once it has been merged.
+     *
+     * @param runFiles The list of sorted run files.
+     * @return The runs for the final merge.
+     * @throws IOException If an I/O error occurs.
+     */
+    private List<String> mergeToFanIn(List<String> runFiles) throws IOException {
+
+        // Merge runs until the final merge fits in one group
+        while (runFiles.size() > config.fanIn) {
+
+            // Order the runs so that each merge group reads from one device
+            runFiles = directories.groupByDevice(runFiles);
+
+            // List to store new run files
+            List<String> newRunFiles = new ArrayList<>();
+
+            // Merge runs in groups of 'fanIn'
+            for (int i = 0; i < runFiles.size(); i += config.fanIn) {
+
+                // Get the runs in the group
+                List<String> group = runFiles.subList(i, Math.min(i + config.fanIn, runFiles.size()));
+
+                // List to store readers for the run files
+                List<BufferedReader> readers = new ArrayList<>();
+
+                // for each run file in the group
+                for (String runFile : group) {
+
+                    // Add a reader that verifies the run's checksum
+                    readers.add(new XSort.ChecksumReader(runFile));
+                }
+
+                // Create a new run file for the merged output, on a different device from the group if possible
+                File mergedRunFile = File.createTempFile("merged_run_", ".txt", directories.forMerge(group));
+
+                // Write the merged run to the new run file
+                try (BufferedWriter writer = XSort.newRunWriter(mergedRunFile)) {
+
+                    // Merge the runs, then verify and record the merged run's checksum
+                    XSort.registerRun(mergedRunFile.getAbsolutePath(),
+                            XSort.mergeKFiles(readers, writer, config.comparator), -1);
+
+                } finally {
+
+                    // for all readers
+                    for (BufferedReader reader : readers) {
+
+                        // Close the reader
+                        reader.close();
+                    }
+                }
+
+                // Add the new run file to the list
+                newRunFiles.add(mergedRunFile.getAbsolutePath());
+
+                // Delete the merged runs
+                deleteRuns(group);
+            }
+
+            // Update the list of run files for the next pass
+            runFiles = newRunFiles;
+        }
+
+        // Return the runs for the final merge
+        return runFiles;
+    }
+
+    /**
+     * Deletes run files and forgets their checksums.
+     *
+     * @param runFiles The paths of the run files.
+     */
+    private static void deleteRuns(List<String> runFiles) {
+
+        // for each run file
+        for (String runFile : runFiles) {
+
+            // Delete the file and forget its checksum
+            new File(runFile).delete();
+            XSort.forgetRun(runFile);
+        }
+    }
+
+    /**
+     * An iterator that must be closed to release its resources.
+     *
+     * @param <T> The type of the elements.
+     */
+    public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+        /**
+         * Releases the iterator's resources.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Iterator over the final merge (or over the lines sorted in memory when
+     * the input fit in a single run). Closing it closes the run readers and
+     * deletes the run files.
+     */
+    private static class MergeIterator implements CloseableIterator<String> {
+
+        // Declare variables
+        private final RunMerger merger;
+        private final Iterator<String> inMemory;
+        private final List<String> runFiles;
+        private final boolean collated;
+        private String next;
+        private boolean closed;
+
+        // Constructor (collated: the lines carry collation keys to remove)
+        public MergeIterator(RunMerger merger, Iterator<String> inMemory, List<String> runFiles,
+                boolean collated) throws IOException {
+
+            // Initialise variables
+            this.merger = merger;
+            this.inMemory = inMemory;
+            this.runFiles = runFiles;
+            this.collated = collated;
+
+            // Read the first line
+            advance();
+        }
+
+        /**
+         * Reads the next merged line into 'next'.
+         */
+        private void advance() throws IOException {
+
+            // Check if the lines were sorted in memory
+            if (merger == null) {
+
+                // Get the next line in memory
+                next = inMemory.hasNext() ? inMemory.next() : null;
+
+                // else read the next line from the merge
+            } else {
+                next = merger.next();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            // Return whether a line is waiting
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+
+            // Check if there are no more lines
+            if (next == null) {
+
+                // Throw an exception
+                throw new NoSuchElementException();
+            }
+
+            // Remember the current line
+            String line = next;
+
+            // try-catch block
+            try {
+
+                // Read the next line
+                advance();
+
+                // Catch exception
+            } catch (IOException e) {
+
+                // Throw an unchecked exception
+                throw new UncheckedIOException(e);
+            }
+
+            // Return the current line, without its collation key
+            return collated ? CollationEncoder.decode(line) : line;
+        }
+
+        @Override
+        public void close() {
+
+            // Check if the iterator is already closed
+            if (closed) {
+
+                // return from the method
+                return;
+            }
+
+            // Mark the iterator as closed
+            closed = true;
+
+            // try-finally block
+            try {
+
+                // Check if there is a merge to close
+                if (merger != null) {
+
+                    // Record the final merge's comparisons and close the run readers
+                    SortMetrics.get().addComparisons(merger.getComparisons());
+                    merger.close();
+                }
+
+                // Catch exception
+            } catch (IOException e) {
+
+                // Throw an unchecked exception
+                throw new UncheckedIOException(e);
+
+            } finally {
+
+                // Delete the run files
+                deleteRuns(runFiles);
+            }
+        }
+    }
+
+    /**
+     * Configuration of an ExternalSorter: run size (lines and memory), merge
+     * fan-in, temp directories, comparator and input charset.
+     */
+    public static class Config {
+
+        // Declare variables
+        private int runLength = Integer.MAX_VALUE;
+        private long memoryBytes = 64L << 20;
+        private int fanIn = 16;
+        private List<File> tempDirs = List.of(new File(System.getProperty("java.io.tmpdir")));
+        private boolean freeSpacePlacement;
+        private Comparator<String> comparator = Comparator.naturalOrder();
+        private Locale locale;
+        private Charset charset = Charset.defaultCharset();
+
+        /**
+         * Sets the maximum number of lines in a run.
+         *
+         * @param runLength The maximum number of lines per run.
+         * @return This configuration.
+         */
+        public Config runLength(int runLength) {
+
+            // Check if the run length is valid
+            if (runLength < 1) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Run length must be at least 1.");
+            }
+
+            // Set the run length
+            this.runLength = runLength;
+            return this;
+        }
+
+        /**
+         * Sets the memory budget for the lines of a run (estimated heap bytes).
+         *
+         * @param memoryBytes The memory budget in bytes.
+         * @return This configuration.
+         */
+        public Config memory(long memoryBytes) {
+
+            // Check if the memory budget is valid
+            if (memoryBytes < 1) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Memory must be at least 1 byte.");
+            }
+
+            // Set the memory budget
+            this.memoryBytes = memoryBytes;
+            return this;
+        }
+
+        /**
+         * Sets the number of runs merged at once.
+         *
+         * @param fanIn The merge fan-in.
+         * @return This configuration.
+         */
+        public Config fanIn(int fanIn) {
+
+            // Check if the fan-in is valid
+            if (fanIn < 2) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Fan-in must be at least 2.");
+            }
+
+            // Set the fan-in
+            this.fanIn = fanIn;
+            return this;
+        }
+
+        /**
+         * Sets the directories run files are written to (in round-robin order
+         * unless placing by free space).
+         *
+         * @param tempDirs The temp directories.
+         * @return This configuration.
+         */
+        public Config tempDirs(List<File> tempDirs) {
+
+            // Check if there is at least one directory
+            if (tempDirs.isEmpty()) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("At least one temp directory is required.");
+            }
+
+            // Set the temp directories
+            this.tempDirs = List.copyOf(tempDirs);
+            return this;
+        }
+
+        /**
+         * Sets whether new runs go to the temp directory with the most free
+         * space instead of round-robin.
+         *
+         * @param freeSpacePlacement true to place runs by free space.
+         * @return This configuration.
+         */
+        public Config placeByFreeSpace(boolean freeSpacePlacement) {
+
+            // Set the placement
+            this.freeSpacePlacement = freeSpacePlacement;
+            return this;
+        }
+
+        /**
+         * Sets the comparator the lines are sorted by.
+         *
+         * @param comparator The comparator.
+         * @return This configuration.
+         */
+        public Config comparator(Comparator<String> comparator) {
+
+            // Set the comparator (replacing any locale)
+            this.comparator = Objects.requireNonNull(comparator);
+            this.locale = null;
+            return this;
+        }
+
+        /**
+         * Sorts in a locale's collation order. Each line's collation key is
+         * computed once and stored with the line, so runs are sorted and merged
+         * by plain string comparison instead of a Collator comparator.
+         *
+         * @param locale The locale.
+         * @return This configuration.
+         */
+        public Config locale(Locale locale) {
+
+            // Set the locale (replacing any comparator)
+            this.locale = Objects.requireNonNull(locale);
+            this.comparator = Comparator.naturalOrder();
+            return this;
+        }
+
+        /**
+         * Sets the charset used to decode channel input.
+         *
+         * @param charset The charset.
+         * @return This configuration.
+         */
+        public Config charset(Charset charset) {
+
+            // Set the charset
+            this.charset = Objects.requireNonNull(charset);
+            return this;
+        }
+    }
+}
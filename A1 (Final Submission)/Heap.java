@@ -1,6 +1,9 @@
 // ID: 1522172
 // Name: Hiran Greening
 
+// Import statements
+import java.util.Comparator;
+
 /**
  * This class implements a heap data structure.
  */
@@ -10,6 +13,8 @@ public class Heap {
     private String[] heapArray;
     private int size;
     private int capacity;
+    private final Comparator<String> comparator;
+    private long comparisons;
 
     /**
      * Constructor for the Heap class.
@@ -18,9 +23,22 @@ public class Heap {
      */
     public Heap(int capacity) {
 
+        // Order the elements by their natural (String.compareTo) order
+        this(capacity, Comparator.naturalOrder());
+    }
+
+    /**
+     * Constructor for a heap ordered by a comparator.
+     * 
+     * @param capacity   the maximum number of elements the heap can store.
+     * @param comparator the comparator that orders the elements.
+     */
+    public Heap(int capacity, Comparator<String> comparator) {
+
         // Initialise variables
         this.capacity = capacity;
         this.size = 0;
+        this.comparator = comparator;
 
         // Create a new heap array
         this.heapArray = new String[capacity];
@@ -135,6 +153,23 @@ public class Heap {
         size = heapArray.length; // Reset size after sorting
     }
 
+    /**
+     * Sorts an array of values in place using heapsort, building the heap once.
+     * 
+     * @param array the array of values.
+     */
+    public void heapsort(String[] array) {
+
+        // Set the heap array
+        this.heapArray = array;
+
+        // Set the size of the heap
+        this.size = array.length;
+
+        // Build the heap and sort it
+        heapsort();
+    }
+
     /**
      * Sifts up an element in the heap.
      * 
@@ -142,7 +177,7 @@ public class Heap {
      * @return the index of the element after sifting up.
      */
     private void siftUp(int index) {
-        while (index > 0 && heapArray[parent(index)].compareTo(heapArray[index]) > 0) {
+        while (index > 0 && compare(heapArray[parent(index)], heapArray[index]) > 0) {
             swap(parent(index), index);
             index = parent(index);
         }
@@ -165,14 +200,14 @@ public class Heap {
 
 
         // Check if the left child is smaller than the current index
-        if (left < size && heapArray[left].compareTo(heapArray[smallest]) < 0) {
+        if (left < size && compare(heapArray[left], heapArray[smallest]) < 0) {
 
             // Set the smallest index to the left child index
             smallest = left;
         }
 
         // Check if the right child is smaller than the current index
-        if (right < size && heapArray[right].compareTo(heapArray[smallest]) < 0) {
+        if (right < size && compare(heapArray[right], heapArray[smallest]) < 0) {
 
             // Set the smallest index to the right child index
             smallest = right;
@@ -191,6 +226,33 @@ public class Heap {
     }
 
 
+    /**
+     * Compares two elements with the comparator and counts the comparison.
+     * 
+     * @param a the first element.
+     * @param b the second element.
+     * @return the comparator's result.
+     */
+    private int compare(String a, String b) {
+
+        // Count the comparison
+        comparisons++;
+
+        // return the result of the comparator
+        return comparator.compare(a, b);
+    }
+
+    /**
+     * Returns the number of comparisons made so far (see SortMetrics).
+     * 
+     * @return the number of comparisons.
+     */
+    public long getComparisons() {
+
+        // return the number of comparisons
+        return comparisons;
+    }
+
     /**
      * Returns the heap array.
      * 
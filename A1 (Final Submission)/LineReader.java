@@ -0,0 +1,412 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Reads lines from a channel in large blocks into a direct buffer, and finds
+ * line boundaries 8 bytes at a time (SWAR: SIMD within a register) instead of
+ * decoding and checking one char at a time.
+ *
+ * Lines can be taken as raw byte slices of the buffer (nextLine and line),
+ * which costs no copying or decoding, or as decoded Strings (readLine). Like
+ * BufferedReader, a line ends at '\n', '\r' or "\r\n", so lines split here
+ * read back the same from run files. The line bytes must be in an
+ * ASCII-compatible charset (such as UTF-8 or ISO-8859-1).
+ */
+class LineReader implements Closeable {
+
+    // Default size of the read buffer
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    // SWAR constants: '\n' and '\r' in every byte, 0x01 in every byte, and 0x80 in every byte
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    // Declare variables
+    private final ReadableByteChannel channel;
+    private final Charset charset;
+    private ByteBuffer buffer;
+    private ByteBuffer view;
+    private byte[] scratch = new byte[256];
+    private int start;
+    private int end;
+    private int scanned;
+    private int lineStart;
+    private int lineEnd;
+    private boolean endOfInput;
+    private long bytesRead;
+
+    /**
+     * Constructor for a LineReader decoding with the platform charset.
+     *
+     * @param channel The channel to read from.
+     */
+    LineReader(ReadableByteChannel channel) {
+
+        // Use the platform charset and the default buffer size
+        this(channel, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for a LineReader decoding with the given charset.
+     *
+     * @param channel The channel to read from.
+     * @param charset The charset used to decode lines in readLine.
+     */
+    LineReader(ReadableByteChannel channel, Charset charset) {
+
+        // Use the default buffer size
+        this(channel, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for the LineReader class.
+     *
+     * @param channel    The channel to read from.
+     * @param charset    The charset used to decode lines in readLine.
+     * @param bufferSize The initial size of the read buffer (grown for longer lines).
+     */
+    LineReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+
+        // Initialise variables
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16)).order(ByteOrder.LITTLE_ENDIAN);
+        this.view = buffer.duplicate();
+    }
+
+    /**
+     * Returns a channel that reads standard input directly from its file
+     * descriptor, so reads go straight into the direct buffer.
+     *
+     * @return The standard input channel.
+     */
+    static ReadableByteChannel stdin() {
+
+        // Return the channel of the standard input file descriptor
+        return new FileInputStream(FileDescriptor.in).getChannel();
+    }
+
+    /**
+     * Checks if a charset can be split into lines on '\n' bytes, which is true
+     * when it encodes '\r' and '\n' as single ASCII bytes (UTF-8, ISO-8859-1,
+     * ...) but not for charsets like UTF-16.
+     *
+     * @param charset The charset.
+     * @return true if the charset can be read by a LineReader.
+     */
+    static boolean supports(Charset charset) {
+
+        // Check that the line terminators encode as their ASCII bytes
+        return charset.canEncode() && Arrays.equals("\r\n".getBytes(charset), new byte[] { '\r', '\n' });
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return true if there is a line, false at the end of the input.
+     * @throws IOException If an I/O error occurs.
+     */
+    boolean nextLine() throws IOException {
+
+        // loop until a line is found or the input ends
+        while (true) {
+
+            // Find the next line terminator in the bytes not yet scanned
+            int terminator = findTerminator(Math.max(scanned, start), end);
+
+            // Check if a terminator was found (a '\r' at the end of the buffer needs the next byte first)
+            if (terminator >= 0 && (terminator + 1 < end || endOfInput || buffer.get(terminator) == '\n')) {
+
+                // Set the line bounds
+                lineStart = start;
+                lineEnd = terminator;
+
+                // Move past the terminator, including the '\n' of a "\r\n"
+                start = terminator + 1;
+                if (buffer.get(terminator) == '\r' && start < end && buffer.get(start) == '\n') {
+                    start++;
+                }
+
+                // Continue scanning from the next line
+                scanned = start;
+
+                // return true (line found)
+                return true;
+            }
+
+            // Remember how far the buffered bytes have been scanned
+            scanned = terminator >= 0 ? terminator : end;
+
+            // Check if the input has ended
+            if (endOfInput) {
+
+                // Check if there is a last line without a newline
+                if (start < end) {
+
+                    // Set the line bounds and consume the rest of the buffer
+                    lineStart = start;
+                    lineEnd = end;
+                    start = end;
+
+                    // return true (line found)
+                    return true;
+                }
+
+                // return false (end of input)
+                return false;
+            }
+
+            // Read more input
+            fill();
+        }
+    }
+
+    /**
+     * Returns the bytes of the current line (without the line terminator) as a
+     * slice of the read buffer. The slice is only valid until the next call to
+     * nextLine or readLine.
+     *
+     * @return The line bytes between the buffer's position and limit.
+     */
+    ByteBuffer line() {
+
+        // Set the view to the current line
+        view.clear();
+        view.position(lineStart);
+        view.limit(lineEnd);
+
+        // Return the view
+        return view;
+    }
+
+    /**
+     * Reads and decodes the next line.
+     *
+     * @return The next line, or null at the end of the input.
+     * @throws IOException If an I/O error occurs.
+     */
+    String readLine() throws IOException {
+
+        // Check if there is another line
+        if (!nextLine()) {
+
+            // return null (end of input)
+            return null;
+        }
+
+        // Get the length of the line
+        int length = lineEnd - lineStart;
+
+        // Check if the scratch buffer is too small
+        if (scratch.length < length) {
+
+            // Grow the scratch buffer
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        }
+
+        // Copy the line out of the direct buffer
+        buffer.get(lineStart, scratch, 0, length);
+
+        // Decode and return the line
+        return new String(scratch, 0, length, charset);
+    }
+
+    /**
+     * Returns an iterator over the decoded lines. I/O errors are thrown as
+     * UncheckedIOException.
+     *
+     * @return The iterator.
+     */
+    Iterator<String> lines() {
+
+        // Return an iterator that reads one line ahead
+        return new Iterator<String>() {
+
+            // The next line, read ahead of the caller
+            private String next = read();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+
+                // Check if there are no more lines
+                if (next == null) {
+
+                    // Throw an exception
+                    throw new NoSuchElementException();
+                }
+
+                // Return the current line and read the next one
+                String line = next;
+                next = read();
+                return line;
+            }
+
+            // Reads the next line, wrapping I/O errors
+            private String read() {
+
+                // try-catch block
+                try {
+
+                    // Read the next line
+                    return readLine();
+
+                    // Catch exception
+                } catch (IOException e) {
+
+                    // Throw an unchecked exception
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the number of bytes read from the channel.
+     *
+     * @return The number of bytes read.
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Closes the channel.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+
+        // Close the channel
+        channel.close();
+    }
+
+    /**
+     * Finds the first '\n' or '\r' in the buffer between from (inclusive) and
+     * to (exclusive), checking 8 bytes per step.
+     *
+     * @return The index of the terminator, or -1 if there is none.
+     */
+    private int findTerminator(int from, int to) {
+
+        // Set the index to scan from
+        int i = from;
+
+        // while there are at least 8 bytes left
+        while (i + 8 <= to) {
+
+            // Read the next 8 bytes
+            long word = buffer.getLong(i);
+
+            // XOR with '\n' and '\r' in every byte, so terminator bytes become zero
+            long newlines = word ^ NEWLINES;
+            long returns = word ^ RETURNS;
+
+            // Set the high bit of each zero byte (the lowest flagged byte is always a real zero)
+            long zeros = ((newlines - ONES) & ~newlines | (returns - ONES) & ~returns) & HIGH_BITS;
+
+            // Check if any byte was a terminator
+            if (zeros != 0) {
+
+                // Return the index of the first terminator (lowest byte, little-endian)
+                return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+            }
+
+            // Move to the next word
+            i += 8;
+        }
+
+        // while there are bytes left
+        while (i < to) {
+
+            // Get the byte
+            byte b = buffer.get(i);
+
+            // Check if the byte is a terminator
+            if (b == '\n' || b == '\r') {
+
+                // Return the index of the terminator
+                return i;
+            }
+
+            // Move to the next byte
+            i++;
+        }
+
+        // return -1 (no terminator found)
+        return -1;
+    }
+
+    /**
+     * Reads more input into the buffer, first moving the unconsumed bytes to
+     * the start of the buffer, or growing the buffer if a single line fills it.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void fill() throws IOException {
+
+        // Check if there are consumed bytes at the start of the buffer
+        if (start > 0) {
+
+            // Move the unconsumed bytes to the start of the buffer
+            buffer.clear();
+            buffer.position(start);
+            buffer.limit(end);
+            buffer.compact();
+
+            // Update the indices
+            end -= start;
+            scanned -= start;
+            start = 0;
+
+            // Check if the buffer is full of one unfinished line
+        } else if (end == buffer.capacity()) {
+
+            // Allocate a buffer twice the size
+            ByteBuffer larger = ByteBuffer.allocateDirect(2 * buffer.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Copy the unfinished line into the new buffer
+            buffer.clear();
+            buffer.limit(end);
+            larger.put(buffer);
+
+            // Use the new buffer
+            buffer = larger;
+            view = buffer.duplicate();
+        }
+
+        // Set the buffer to receive bytes after the unconsumed bytes
+        buffer.clear();
+        buffer.position(end);
+
+        // Read from the channel
+        int read = channel.read(buffer);
+
+        // Check if the input has ended
+        if (read == -1) {
+
+            // Mark the end of the input
+            endOfInput = true;
+
+            // else add the bytes read
+        } else {
+            end += read;
+            bytesRead += read;
+        }
+    }
+}
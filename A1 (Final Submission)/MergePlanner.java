@@ -0,0 +1,275 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Plans the merge for --auto-merge. The fan-in is chosen from the open-file
+ * limit and the memory available for read buffers, and runs are merged
+ * smallest first (the Huffman optimal merge pattern), so small runs are not
+ * rewritten on every pass the way they are in fixed groups.
+ *
+ * With n runs and fan-in k, the first merge takes (n - 1) mod (k - 1) + 1
+ * runs (as if the runs were padded with empty dummy runs), so that every later
+ * merge takes exactly k runs and the last merge leaves one run.
+ */
+class MergePlanner {
+
+    // File descriptors kept free for standard streams, class files and the output
+    private static final int RESERVED_FILES = 32;
+
+    // Estimated memory per open run: a BufferedReader's 8192 chars plus the decoder's byte buffer
+    private static final int READER_BYTES = 3 * 8192;
+
+    // Largest fan-in used (RunMerger finds the run of each line with a scan over the runs)
+    private static final int MAX_FAN_IN = 64;
+
+    // Declare variables
+    private final int fanIn;
+
+    /**
+     * Constructor for the MergePlanner class.
+     *
+     * @param fanIn The number of runs merged at once (at least 2).
+     */
+    MergePlanner(int fanIn) {
+
+        // Initialise variables
+        this.fanIn = Math.max(2, fanIn);
+    }
+
+    /**
+     * Creates a planner with the fan-in allowed by the open-file limit and the
+     * memory available for read buffers.
+     *
+     * @return The planner.
+     */
+    static MergePlanner fromLimits() {
+
+        // Get the fan-in allowed by the open-file limit (unlimited if unknown)
+        long limit = openFileLimit();
+        long byFiles = limit < 0 ? Long.MAX_VALUE : limit - RESERVED_FILES;
+
+        // Get the fan-in allowed by half of the memory the heap can still grow into
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long byMemory = available / 2 / READER_BYTES;
+
+        // Return a planner with the smallest of the limits
+        return new MergePlanner((int) Math.min(MAX_FAN_IN, Math.min(byFiles, byMemory)));
+    }
+
+    /**
+     * Reads the soft limit on open files from /proc/self/limits (Linux).
+     *
+     * @return The limit, or -1 if it is unknown or unlimited.
+     */
+    static long openFileLimit() {
+
+        // try-catch block
+        try {
+
+            // for each line of the limits file
+            for (String line : Files.readAllLines(Paths.get("/proc/self/limits"))) {
+
+                // Check if this is the open files limit
+                if (line.startsWith("Max open files")) {
+
+                    // Get the soft limit (the first value after the name)
+                    String soft = line.substring("Max open files".length()).trim().split("\\s+")[0];
+
+                    // Return the limit, or -1 if unlimited
+                    return soft.equals("unlimited") ? -1 : Long.parseLong(soft);
+                }
+            }
+
+            // Catch exception
+        } catch (IOException | RuntimeException e) {
+
+            // Fall through (limit unknown)
+        }
+
+        // return -1 (limit unknown)
+        return -1;
+    }
+
+    /**
+     * Get the fan-in.
+     *
+     * @return The number of runs merged at once.
+     */
+    int getFanIn() {
+        return fanIn;
+    }
+
+    /**
+     * Chooses the next runs to merge and removes them from the queue: the
+     * smallest runs, as many as the Huffman pattern takes for the current
+     * number of runs. The caller adds the merged run back to the queue.
+     *
+     * @param queue The runs left to merge (at least two).
+     * @return The runs to merge next, smallest first.
+     */
+    List<String> nextGroup(RunQueue queue) {
+
+        // List to store the runs to merge
+        List<String> group = new ArrayList<>();
+
+        // Take the smallest runs
+        for (int i = groupSize(queue.size()); i > 0; i--) {
+            group.add(queue.runs.remove().path);
+        }
+
+        // Return the group
+        return group;
+    }
+
+    /**
+     * Predicts the number of bytes written by the merges (every merge writes
+     * the total size of its inputs).
+     *
+     * @param sizes The sizes of the runs in bytes.
+     * @return The predicted number of bytes rewritten.
+     */
+    long predictRewrittenBytes(List<Long> sizes) {
+
+        // Queue of run sizes, smallest first
+        PriorityQueue<Long> queue = new PriorityQueue<>(sizes);
+
+        // Variable to store the total bytes written
+        long rewritten = 0;
+
+        // while there is more than one run
+        while (queue.size() > 1) {
+
+            // Merge the next group of smallest runs
+            long merged = 0;
+            for (int i = groupSize(queue.size()); i > 0; i--) {
+                merged += queue.remove();
+            }
+
+            // Add the merged run and count its bytes
+            queue.add(merged);
+            rewritten += merged;
+        }
+
+        // Return the total bytes written
+        return rewritten;
+    }
+
+    /**
+     * Counts the merges needed to merge the given number of runs into one.
+     *
+     * @param runs The number of runs.
+     * @return The number of merges.
+     */
+    int countMerges(int runs) {
+
+        // Each merge of g runs removes g - 1 runs
+        int merges = 0;
+        while (runs > 1) {
+            runs -= groupSize(runs) - 1;
+            merges++;
+        }
+
+        // Return the number of merges
+        return merges;
+    }
+
+    /**
+     * Runs left to merge, smallest first. Each run's size is read once, when
+     * it is added, and runs of the same size come out in the order they were
+     * added, so the plan is repeatable.
+     */
+    static class RunQueue {
+
+        // Queue of runs by size, then by the order they were added
+        private final PriorityQueue<Run> runs = new PriorityQueue<>(Comparator.comparingLong((Run run) -> run.size)
+                .thenComparingLong(run -> run.order));
+
+        // Number of runs added so far
+        private long added;
+
+        /**
+         * Constructor for the RunQueue class.
+         *
+         * @param runFiles The paths of the runs to merge.
+         */
+        RunQueue(List<String> runFiles) {
+
+            // for each run file
+            for (String runFile : runFiles) {
+
+                // Add the run
+                add(runFile);
+            }
+        }
+
+        /**
+         * Adds a run (such as the output of a merge).
+         *
+         * @param runFile The path of the run.
+         */
+        void add(String runFile) {
+            runs.add(new Run(new File(runFile).length(), added++, runFile));
+        }
+
+        /**
+         * Get the number of runs left.
+         *
+         * @return The number of runs.
+         */
+        int size() {
+            return runs.size();
+        }
+
+        /**
+         * Get the last run left.
+         *
+         * @return The path of the run.
+         */
+        String last() {
+            return runs.element().path;
+        }
+
+        /**
+         * A run's size, the order it was added in and its path.
+         */
+        private static class Run {
+
+            // Declare variables
+            final long size;
+            final long order;
+            final String path;
+
+            /**
+             * Constructor for the Run class.
+             */
+            Run(long size, long order, String path) {
+
+                // Initialise variables
+                this.size = size;
+                this.order = order;
+                this.path = path;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of runs the next merge takes when n runs are left.
+     */
+    private int groupSize(int runs) {
+
+        // Take all runs if they fit in one merge
+        if (runs <= fanIn) {
+            return runs;
+        }
+
+        // Take the remainder first, so that every later merge takes fanIn runs
+        int remainder = (runs - 1) % (fanIn - 1);
+        return remainder == 0 ? fanIn : remainder + 1;
+    }
+}
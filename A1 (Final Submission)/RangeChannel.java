@@ -0,0 +1,205 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+/**
+ * A channel over the byte range [start, end) of a file, read with positional
+ * reads so any number of ranges of the same FileChannel can be read at once
+ * from different threads (--input). Closing a range leaves the file open.
+ *
+ * split divides a file into ranges that start and end on line boundaries, so
+ * every line is read whole by exactly one range.
+ */
+class RangeChannel implements ReadableByteChannel {
+
+    // Size of the buffer used to find line boundaries
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    // Declare variables
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    private boolean open = true;
+
+    /**
+     * Constructor for the RangeChannel class.
+     *
+     * @param channel The file.
+     * @param start   The position of the first byte of the range.
+     * @param end     The position after the last byte of the range.
+     */
+    RangeChannel(FileChannel channel, long start, long end) {
+
+        // Initialise variables
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Splits a file into up to the given number of ranges of about equal size,
+     * each ending just after a '\n' (or at the end of the file).
+     *
+     * @param channel The file.
+     * @param ranges  The number of ranges wanted (at least 1).
+     * @return The ranges, in file order (at least one, empty for an empty file).
+     * @throws IOException If an I/O error occurs.
+     */
+    static List<RangeChannel> split(FileChannel channel, int ranges) throws IOException {
+
+        // Get the size of the file
+        long size = channel.size();
+
+        // List to store the ranges
+        List<RangeChannel> list = new ArrayList<>();
+
+        // Variable to store the start of the next range
+        long start = 0;
+
+        // for each split point
+        for (int i = 1; i < ranges; i++) {
+
+            // Move the split point to the start of the next line
+            long end = lineStart(channel, Math.max(start, size * i / ranges), size);
+
+            // Check if the range isn't empty (a long line can cover several split points)
+            if (end > start) {
+
+                // Add the range
+                list.add(new RangeChannel(channel, start, end));
+                start = end;
+            }
+        }
+
+        // Add the last range
+        list.add(new RangeChannel(channel, start, size));
+
+        // Return the ranges
+        return list;
+    }
+
+    /**
+     * Returns the first position at or after the given position that starts a
+     * line (follows a '\n'), or the size of the file if there is none.
+     */
+    private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+
+        // Check if the position is the start of the file
+        if (position == 0) {
+
+            // return 0 (the first line starts there)
+            return 0;
+        }
+
+        // Create a buffer for the scan
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        // Start at the byte before the position, in case it ends a line
+        long scan = position - 1;
+
+        // while there are bytes to scan
+        while (scan < size) {
+
+            // Read the next block
+            buffer.clear();
+            int read = channel.read(buffer, scan);
+
+            // Check if the file has ended
+            if (read <= 0) {
+
+                // Break out of the loop
+                break;
+            }
+
+            // for each byte in the block
+            for (int i = 0; i < read; i++) {
+
+                // Check if the byte ends a line
+                if (buffer.get(i) == '\n') {
+
+                    // Return the position after it
+                    return scan + i + 1;
+                }
+            }
+
+            // Move to the next block
+            scan += read;
+        }
+
+        // return the size (no more line starts)
+        return size;
+    }
+
+    /**
+     * Reads bytes from the range at the current position.
+     *
+     * @param dst The buffer to read into.
+     * @return The number of bytes read, or -1 at the end of the range.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+
+        // Check if the channel is closed
+        if (!open) {
+
+            // Throw an exception
+            throw new ClosedChannelException();
+        }
+
+        // Check if the range has been read
+        if (position >= end) {
+
+            // return -1 (end of range)
+            return -1;
+        }
+
+        // Limit the read to the rest of the range
+        int limit = dst.limit();
+        if (dst.remaining() > end - position) {
+            dst.limit(dst.position() + (int) (end - position));
+        }
+
+        // Variable to store the number of bytes read
+        int read;
+
+        // try-finally block to restore the buffer's limit
+        try {
+
+            // Read at the current position (doesn't move the file's position)
+            read = channel.read(dst, position);
+
+        } finally {
+
+            // Restore the limit
+            dst.limit(limit);
+        }
+
+        // Check if bytes were read
+        if (read > 0) {
+
+            // Move past the bytes
+            position += read;
+        }
+
+        // Return the number of bytes read
+        return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+
+        // Mark the range as closed (the file is closed by its owner)
+        open = false;
+    }
+}
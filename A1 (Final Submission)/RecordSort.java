@@ -0,0 +1,592 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Sorts fixed-width binary records (sortbenchmark / gensort format: a 10-byte
+ * key followed by a 90-byte payload) using the same run creation and k-way
+ * merge structure as XSort.
+ *
+ * Records are read from standard input one run-sized block at a time, sorted
+ * in memory as key/pointer pairs, and written to run files with positional
+ * bulk writes.
+ */
+public class RecordSort {
+
+    // Size of one record in bytes
+    static final int RECORD_SIZE = 100;
+
+    // Size of the sort key at the start of each record in bytes
+    static final int KEY_SIZE = 10;
+
+    // Number of records read per merge input block
+    private static final int INPUT_BLOCK_RECORDS = 1024;
+
+    // Number of records buffered per merge output block
+    private static final int OUTPUT_BLOCK_RECORDS = 8192;
+
+    /**
+     * Creates initial runs of the specified length by reading fixed-width
+     * records from standard input, sorting them, and writing them to run files.
+     *
+     * @param runLength The number of records in each run.
+     * @return The list of paths to the run files.
+     * @throws IOException If an I/O error occurs or the input ends with a
+     *                     partial record.
+     */
+    static List<String> createInitialRuns(int runLength) throws IOException {
+
+        // Remember when the run phase started
+        long start = System.nanoTime();
+
+        // Variable to store the number of records read
+        long records = 0;
+
+        // Create a channel to read from standard input
+        ReadableByteChannel in = Channels.newChannel(System.in);
+
+        // Block buffer holding one run of records
+        ByteBuffer block = ByteBuffer.allocate(runLength * RECORD_SIZE);
+
+        // List to store paths of run files
+        List<String> runFiles = new ArrayList<>();
+
+        // Flag for the end of the input
+        boolean endOfInput = false;
+
+        // Read the input one block at a time and create runs
+        while (!endOfInput) {
+
+            // Clear the block for the next run
+            block.clear();
+
+            // Fill the block until it is full or the input ends
+            while (block.hasRemaining()) {
+
+                // Check if the input has ended
+                if (in.read(block) == -1) {
+
+                    // Mark the end of the input
+                    endOfInput = true;
+
+                    // break the loop
+                    break;
+                }
+            }
+
+            // Check if the block is empty
+            if (block.position() == 0) {
+
+                // break the loop
+                break;
+            }
+
+            // Check if the block ends with a partial record
+            if (block.position() % RECORD_SIZE != 0) {
+
+                // Throw an exception
+                throw new IOException("Input ends with a partial record of "
+                        + (block.position() % RECORD_SIZE) + " bytes.");
+            }
+
+            // Write the sorted run to a run file
+            String runFile = writeSortedRun(block.array(), block.position() / RECORD_SIZE);
+
+            // Count the records
+            records += block.position() / RECORD_SIZE;
+
+            // Add the run file to the list
+            runFiles.add(runFile);
+        }
+
+        // Record the input read and the time taken
+        SortMetrics.get().addInput(records, records * RECORD_SIZE);
+        SortMetrics.get().addRunPhase(start);
+
+        // check if runFiles is empty
+        if (runFiles.isEmpty()) {
+
+            // Print message
+            System.err.println("No runs created. The input file is empty.");
+        }
+
+        // Return the list of run files
+        return runFiles;
+    }
+
+    /**
+     * Sorts a block of records by key and writes it to a run file.
+     *
+     * The block is sorted as key/pointer pairs: the first 8 key bytes are packed
+     * into a long, and the last 2 key bytes share an int with the record's
+     * position in the block, so the records themselves are only moved once.
+     *
+     * @param block The block of records.
+     * @param count The number of records in the block.
+     * @return The path of the run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String writeSortedRun(byte[] block, int count) throws IOException {
+
+        // Start the run's JFR event
+        SortMetrics.RunEvent event = SortMetrics.startRun();
+
+        // Wrap the block for reading key prefixes
+        ByteBuffer keys = ByteBuffer.wrap(block);
+
+        // Arrays to store the key/pointer pairs
+        long[] prefixes = new long[count];
+        int[] tails = new int[count];
+
+        // for each record in the block
+        for (int i = 0; i < count; i++) {
+
+            // Get the offset of the record
+            int offset = i * RECORD_SIZE;
+
+            // Store the first 8 key bytes (big-endian, so unsigned order is key order)
+            prefixes[i] = keys.getLong(offset);
+
+            // Store the last 2 key bytes followed by the record pointer
+            tails[i] = ((block[offset + 8] & 0xff) << 24) | ((block[offset + 9] & 0xff) << 16) | i;
+        }
+
+        // Sort the key/pointer pairs
+        heapsort(prefixes, tails, count);
+
+        // Create the output block in sorted order
+        byte[] sorted = new byte[count * RECORD_SIZE];
+
+        // for each key/pointer pair
+        for (int i = 0; i < count; i++) {
+
+            // Copy the record the pointer refers to
+            System.arraycopy(block, (tails[i] & 0xffff) * RECORD_SIZE, sorted, i * RECORD_SIZE, RECORD_SIZE);
+        }
+
+        // create file object to make run files with unique names
+        File runFile = File.createTempFile("run_", ".dat", XSort.runDirectories.next());
+
+        // Write the sorted run to the run file
+        try (FileChannel channel = FileChannel.open(runFile.toPath(), StandardOpenOption.WRITE)) {
+
+            // Write the whole block at the start of the file
+            writeFully(channel, ByteBuffer.wrap(sorted), 0);
+        }
+
+        // Record the run in the metrics (record comparisons are not counted)
+        SortMetrics.get().addRun(event, runFile.getAbsolutePath(), count, runFile.length(), 0);
+
+        // Return the path of the run file
+        return runFile.getAbsolutePath();
+    }
+
+    /**
+     * Performs a balanced k-way merge on the record runs and writes the sorted
+     * records to standard output.
+     *
+     * @param runFiles    The list of sorted run files.
+     * @param mergeFactor The merge factor.
+     * @throws IOException If an I/O error occurs.
+     */
+    static void performMerge(List<String> runFiles, int mergeFactor) throws IOException {
+
+        // Check if there is nothing to merge
+        if (runFiles.isEmpty()) {
+
+            // return from the method
+            return;
+        }
+
+        // Remember when the merge phase started
+        long start = System.nanoTime();
+
+        // Variable to store the number of passes
+        int pass = 0;
+
+        // Merge runs until there is only one run left
+        while (runFiles.size() > 1) {
+
+            // Remember when the pass started and start its JFR event
+            long passStart = System.nanoTime();
+            SortMetrics.MergePassEvent event = SortMetrics.startPass();
+
+            // Order the runs so that each merge group reads from one device
+            runFiles = XSort.runDirectories.groupByDevice(runFiles);
+
+            // List to store new run files
+            List<String> newRunFiles = new ArrayList<>();
+
+            // Variable to store the bytes written by the pass
+            long passBytes = 0;
+
+            // Merge runs in groups of 'mergeFactor'
+            for (int i = 0; i < runFiles.size(); i += mergeFactor) {
+
+                // Get the runs in the group
+                List<String> group = runFiles.subList(i, Math.min(i + mergeFactor, runFiles.size()));
+
+                // Create a new run file for the merged output, on a different device from the group if possible
+                File mergedRunFile = File.createTempFile("merged_run_", ".dat", XSort.runDirectories.forMerge(group));
+
+                // Merge the group into the new run file
+                mergeKRuns(group, mergedRunFile);
+
+                // Record the bytes read and written by the merge (records are the same size before and after)
+                SortMetrics.get().addMerge(mergedRunFile.length(), mergedRunFile.length());
+                passBytes += mergedRunFile.length();
+
+                // Add the new run file to the list
+                newRunFiles.add(mergedRunFile.getAbsolutePath());
+            }
+
+            // Record the pass in the metrics
+            SortMetrics.get().addPass(event, pass++, runFiles.size(), newRunFiles.size(), passBytes, passStart);
+
+            // Update the list of run files for the next pass
+            runFiles = newRunFiles;
+        }
+
+        // Record the time spent merging
+        SortMetrics.get().addMergePhase(start);
+
+        // Remember when writing the output started
+        long outputStart = System.nanoTime();
+
+        // Copy the final sorted run to standard output
+        try (FileChannel channel = FileChannel.open(Paths.get(runFiles.get(0)), StandardOpenOption.READ)) {
+
+            // Create a channel to write to standard output
+            WritableByteChannel out = Channels.newChannel(System.out);
+
+            // Get the size of the final run
+            long size = channel.size();
+
+            // Set the position to copy from
+            long position = 0;
+
+            // while there are bytes left to copy
+            while (position < size) {
+
+                // Transfer the next chunk to standard output
+                position += channel.transferTo(position, size - position, out);
+            }
+
+            // Flush standard output
+            System.out.flush();
+
+            // Record the bytes written and the time taken (the copy is all output writing)
+            SortMetrics.get().addOutputWrite(outputStart);
+            SortMetrics.get().addOutput(size, outputStart);
+        }
+    }
+
+    /**
+     * Merges k sorted record runs into a single sorted run file.
+     *
+     * @param inputs The paths of the run files to merge.
+     * @param output The file to write the merged run to.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void mergeKRuns(List<String> inputs, File output) throws IOException {
+
+        // Get the number of inputs
+        int k = inputs.size();
+
+        // Arrays to store the state of each input
+        FileChannel[] channels = new FileChannel[k];
+        byte[][] blocks = new byte[k][];
+        int[] positions = new int[k];
+        int[] limits = new int[k];
+        long[] filePositions = new long[k];
+
+        // Output block and its fill level
+        byte[] outBlock = new byte[OUTPUT_BLOCK_RECORDS * RECORD_SIZE];
+        int outFill = 0;
+        long outPosition = 0;
+
+        // try-finally block to close the input channels
+        try (FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.WRITE)) {
+
+            // Heap of input indices ordered by their current record
+            int[] heap = new int[k];
+            int heapSize = 0;
+
+            // for each input
+            for (int i = 0; i < k; i++) {
+
+                // Open the input channel
+                channels[i] = FileChannel.open(Paths.get(inputs.get(i)), StandardOpenOption.READ);
+
+                // Create the input block
+                blocks[i] = new byte[INPUT_BLOCK_RECORDS * RECORD_SIZE];
+
+                // Check if the first block has records
+                if (refill(channels, blocks, positions, limits, filePositions, i)) {
+
+                    // Add the input to the heap
+                    heap[heapSize] = i;
+                    heapSize++;
+                }
+            }
+
+            // Build the heap
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+
+                // Sift down the element
+                siftDownInputs(heap, heapSize, i, blocks, positions);
+            }
+
+            // while heap is not empty
+            while (heapSize > 0) {
+
+                // Get the input with the smallest record
+                int smallest = heap[0];
+
+                // Copy the record to the output block
+                System.arraycopy(blocks[smallest], positions[smallest], outBlock, outFill, RECORD_SIZE);
+                outFill += RECORD_SIZE;
+                positions[smallest] += RECORD_SIZE;
+
+                // Check if the output block is full
+                if (outFill == outBlock.length) {
+
+                    // Write the output block at the current file position
+                    writeFully(out, ByteBuffer.wrap(outBlock, 0, outFill), outPosition);
+                    outPosition += outFill;
+                    outFill = 0;
+                }
+
+                // Check if the input is exhausted
+                if (positions[smallest] == limits[smallest]
+                        && !refill(channels, blocks, positions, limits, filePositions, smallest)) {
+
+                    // Replace the root with the last input
+                    heapSize--;
+                    heap[0] = heap[heapSize];
+                }
+
+                // Sift down the root element
+                siftDownInputs(heap, heapSize, 0, blocks, positions);
+            }
+
+            // Check if the output block has records left
+            if (outFill > 0) {
+
+                // Write the remaining records
+                writeFully(out, ByteBuffer.wrap(outBlock, 0, outFill), outPosition);
+            }
+
+        } finally {
+
+            // for all input channels
+            for (FileChannel channel : channels) {
+
+                // Check if the channel was opened
+                if (channel != null) {
+
+                    // Close the channel
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the next block of an input with positional reads.
+     *
+     * @return true if the block holds at least one record.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static boolean refill(FileChannel[] channels, byte[][] blocks, int[] positions, int[] limits,
+            long[] filePositions, int input) throws IOException {
+
+        // Wrap the input block
+        ByteBuffer buffer = ByteBuffer.wrap(blocks[input]);
+
+        // Fill the block until it is full or the file ends
+        while (buffer.hasRemaining()) {
+
+            // Read at the current file position (timing the read)
+            long start = System.nanoTime();
+            int read = channels[input].read(buffer, filePositions[input] + buffer.position());
+            SortMetrics.get().addRunRead(start);
+
+            // Check if the file has ended
+            if (read == -1) {
+
+                // break the loop
+                break;
+            }
+        }
+
+        // Update the file position and block bounds
+        filePositions[input] += buffer.position();
+        positions[input] = 0;
+        limits[input] = buffer.position() - buffer.position() % RECORD_SIZE;
+
+        // Return whether the block holds any records
+        return limits[input] > 0;
+    }
+
+    /**
+     * Sifts down an input in the merge heap, comparing the keys of each input's
+     * current record. Ties are broken by input index to keep the merge stable.
+     */
+    private static void siftDownInputs(int[] heap, int size, int index, byte[][] blocks, int[] positions) {
+
+        // while the element has a left child
+        while (2 * index + 1 < size) {
+
+            // Get the left and right child indices
+            int smallest = 2 * index + 1;
+            int right = smallest + 1;
+
+            // Check if the right child is smaller than the left child
+            if (right < size && compareInputs(heap[right], heap[smallest], blocks, positions) < 0) {
+
+                // Set the smallest index to the right child index
+                smallest = right;
+            }
+
+            // Check if the element is already in place
+            if (compareInputs(heap[index], heap[smallest], blocks, positions) <= 0) {
+
+                // break the loop
+                break;
+            }
+
+            // Swap the element with the smallest child
+            int temp = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = temp;
+            index = smallest;
+        }
+    }
+
+    /**
+     * Compares the keys of the current records of two inputs.
+     */
+    private static int compareInputs(int a, int b, byte[][] blocks, int[] positions) {
+
+        // Compare the keys as unsigned bytes
+        int result = Arrays.compareUnsigned(blocks[a], positions[a], positions[a] + KEY_SIZE,
+                blocks[b], positions[b], positions[b] + KEY_SIZE);
+
+        // Break ties by input index
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    /**
+     * Sorts key/pointer pairs in place with heapsort.
+     *
+     * @param prefixes The first 8 key bytes of each record.
+     * @param tails    The last 2 key bytes and the pointer of each record.
+     * @param count    The number of pairs.
+     */
+    private static void heapsort(long[] prefixes, int[] tails, int count) {
+
+        // Build a max heap
+        for (int i = count / 2 - 1; i >= 0; i--) {
+
+            // Sift down the element
+            siftDownPairs(prefixes, tails, count, i);
+        }
+
+        // Sort the heap
+        for (int i = count - 1; i > 0; i--) {
+
+            // Swap the root element with the last element
+            swapPairs(prefixes, tails, 0, i);
+
+            // Sift down the root element
+            siftDownPairs(prefixes, tails, i, 0);
+        }
+    }
+
+    /**
+     * Sifts down a key/pointer pair in a max heap.
+     */
+    private static void siftDownPairs(long[] prefixes, int[] tails, int size, int index) {
+
+        // while the element has a left child
+        while (2 * index + 1 < size) {
+
+            // Get the left and right child indices
+            int largest = 2 * index + 1;
+            int right = largest + 1;
+
+            // Check if the right child is larger than the left child
+            if (right < size && comparePairs(prefixes, tails, right, largest) > 0) {
+
+                // Set the largest index to the right child index
+                largest = right;
+            }
+
+            // Check if the element is already in place
+            if (comparePairs(prefixes, tails, index, largest) >= 0) {
+
+                // break the loop
+                break;
+            }
+
+            // Swap the element with the largest child
+            swapPairs(prefixes, tails, index, largest);
+            index = largest;
+        }
+    }
+
+    /**
+     * Compares two key/pointer pairs as unsigned values.
+     */
+    private static int comparePairs(long[] prefixes, int[] tails, int i, int j) {
+
+        // Compare the key prefixes
+        int result = Long.compareUnsigned(prefixes[i], prefixes[j]);
+
+        // Compare the key tails (and pointers) if the prefixes are equal
+        return result != 0 ? result : Integer.compareUnsigned(tails[i], tails[j]);
+    }
+
+    /**
+     * Swaps two key/pointer pairs.
+     */
+    private static void swapPairs(long[] prefixes, int[] tails, int i, int j) {
+
+        // Swap the prefixes
+        long prefix = prefixes[i];
+        prefixes[i] = prefixes[j];
+        prefixes[j] = prefix;
+
+        // Swap the tails
+        int tail = tails[i];
+        tails[i] = tails[j];
+        tails[j] = tail;
+    }
+
+    /**
+     * Writes the whole buffer to the channel at the given position.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+        // Remember where the buffer starts
+        int start = buffer.position();
+
+        // while there are bytes left to write
+        while (buffer.hasRemaining()) {
+
+            // Write at the position of the next unwritten byte (timing the write)
+            long writeStart = System.nanoTime();
+            channel.write(buffer, position + buffer.position() - start);
+            SortMetrics.get().addRunWrite(writeStart);
+        }
+    }
+}
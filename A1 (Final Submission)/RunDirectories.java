@@ -0,0 +1,229 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places run files across one or more temp directories, so that run I/O is
+ * spread over several devices instead of one.
+ *
+ * New runs go to the directories in round-robin order or to the directory with
+ * the most free space. Merge groups are formed from runs on the same device,
+ * and each merged run is written to a directory on a different device from its
+ * inputs where possible, so reads and writes of a merge hit different disks.
+ */
+class RunDirectories {
+
+    /**
+     * How new run files are placed across the directories.
+     */
+    enum Placement {
+
+        // Use the directories in turn
+        ROUND_ROBIN,
+
+        // Use the directory with the most usable space
+        FREE_SPACE
+    }
+
+    // Declare variables
+    private final List<File> directories;
+    private final Placement placement;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<File, Object> devices = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the RunDirectories class.
+     *
+     * @param directories The temp directories (at least one).
+     * @param placement   How new run files are placed.
+     */
+    RunDirectories(List<File> directories, Placement placement) {
+
+        // Check if there is at least one directory
+        if (directories.isEmpty()) {
+
+            // Throw an exception
+            throw new IllegalArgumentException("At least one temp directory is required.");
+        }
+
+        // Initialise variables
+        this.directories = List.copyOf(directories);
+        this.placement = placement;
+    }
+
+    /**
+     * Returns the first directory (used for files that aren't runs, such as the
+     * merge manifest), creating it if it doesn't exist.
+     *
+     * @return The first directory.
+     */
+    File first() {
+
+        // Return the first directory
+        return create(directories.get(0));
+    }
+
+    /**
+     * Returns the directory for a new run file.
+     *
+     * @return The directory.
+     */
+    File next() {
+
+        // Pick from all directories
+        return pick(directories);
+    }
+
+    /**
+     * Returns the directory for the output of a merge, preferring directories on
+     * a different device from all of the merge's inputs.
+     *
+     * @param inputs The paths of the runs being merged.
+     * @return The directory.
+     */
+    File forMerge(List<String> inputs) {
+
+        // Set to store the devices of the inputs
+        Set<Object> inputDevices = new HashSet<>();
+
+        // for each input run
+        for (String input : inputs) {
+
+            // Add the device of the run's directory
+            inputDevices.add(device(new File(input).getAbsoluteFile().getParentFile()));
+        }
+
+        // List to store the directories on other devices
+        List<File> candidates = new ArrayList<>();
+
+        // for each directory
+        for (File directory : directories) {
+
+            // Check if the directory is on a different device from the inputs
+            if (!inputDevices.contains(device(directory))) {
+
+                // Add the directory to the candidates
+                candidates.add(directory);
+            }
+        }
+
+        // Pick from the other devices, or from all directories if there are none
+        return pick(candidates.isEmpty() ? directories : candidates);
+    }
+
+    /**
+     * Reorders runs so that runs on the same device are next to each other,
+     * keeping their relative order, so that merge groups read from one device.
+     * The result depends only on the order of the given list, so a resumed
+     * merge forms the same groups.
+     *
+     * @param runFiles The paths of the runs.
+     * @return The runs grouped by device.
+     */
+    List<String> groupByDevice(List<String> runFiles) {
+
+        // Map to store the runs of each device, in order of first appearance
+        Map<Object, List<String>> byDevice = new LinkedHashMap<>();
+
+        // for each run
+        for (String runFile : runFiles) {
+
+            // Add the run to its device's list
+            byDevice.computeIfAbsent(device(new File(runFile).getAbsoluteFile().getParentFile()),
+                    key -> new ArrayList<>()).add(runFile);
+        }
+
+        // List to store the grouped runs
+        List<String> grouped = new ArrayList<>(runFiles.size());
+
+        // for each device's runs
+        for (List<String> runs : byDevice.values()) {
+
+            // Add the runs
+            grouped.addAll(runs);
+        }
+
+        // Return the grouped runs
+        return grouped;
+    }
+
+    /**
+     * Picks a directory from the candidates using the placement policy.
+     */
+    private File pick(List<File> candidates) {
+
+        // Set the chosen directory
+        File chosen;
+
+        // Check if placing by free space
+        if (placement == Placement.FREE_SPACE) {
+
+            // Start with the first candidate
+            chosen = candidates.get(0);
+
+            // for each candidate
+            for (File candidate : candidates) {
+
+                // Check if the candidate has more usable space
+                if (create(candidate).getUsableSpace() > chosen.getUsableSpace()) {
+
+                    // Choose the candidate
+                    chosen = candidate;
+                }
+            }
+
+            // else use the candidates in turn
+        } else {
+            chosen = candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        }
+
+        // Return the chosen directory
+        return create(chosen);
+    }
+
+    /**
+     * Returns an object identifying the device (file store) of a directory.
+     * Directories whose file store can't be read are treated as separate devices.
+     */
+    private Object device(File directory) {
+
+        // Return the cached device, looking it up the first time
+        return devices.computeIfAbsent(directory, key -> {
+
+            // try-catch block
+            try {
+
+                // Return the directory's file store
+                return Files.getFileStore(create(key).toPath());
+
+                // Catch exception
+            } catch (IOException e) {
+
+                // Use the directory itself as its device
+                return key.getAbsoluteFile();
+            }
+        });
+    }
+
+    /**
+     * Creates a directory if it doesn't exist.
+     */
+    private static File create(File directory) {
+
+        // Check if the directory exists
+        if (!directory.exists()) {
+
+            // Create the directory if it doesn't exist
+            directory.mkdirs();
+        }
+
+        // Return the directory
+        return directory;
+    }
+}
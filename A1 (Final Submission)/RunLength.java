@@ -0,0 +1,123 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.util.Comparator;
+
+/**
+ * Run-length encoded run files (--rle): a block of identical adjacent lines is
+ * stored as one record,
+ *
+ * count SPACE line
+ *
+ * so duplicates are written, read and merged once per block instead of once
+ * per copy. Records are ordered by their line, ignoring the count, and are
+ * only expanded back into copies when the final output is written.
+ */
+class RunLength {
+
+    // Orders records by their line, ignoring the count
+    static final Comparator<String> ORDER = RunLength::compare;
+
+    /**
+     * Private constructor (static methods only).
+     */
+    private RunLength() {
+    }
+
+    /**
+     * Encodes a block of identical lines as a record.
+     *
+     * @param line  The line.
+     * @param count The number of copies.
+     * @return The record.
+     */
+    static String encode(String line, long count) {
+
+        // Return the count, a space and the line
+        return count + " " + line;
+    }
+
+    /**
+     * Get the number of copies in a record.
+     *
+     * @param record The record.
+     * @return The count.
+     * @throws NumberFormatException If the record has no valid count.
+     */
+    static long count(String record) {
+
+        // Parse the digits before the space
+        return Long.parseLong(record, 0, record.indexOf(' '), 10);
+    }
+
+    /**
+     * Get the line of a record.
+     *
+     * @param record The record.
+     * @return The line.
+     */
+    static String line(String record) {
+
+        // Return the text after the space
+        return record.substring(record.indexOf(' ') + 1);
+    }
+
+    /**
+     * Compares the lines of two records without copying them.
+     *
+     * @param a The first record.
+     * @param b The second record.
+     * @return A negative, zero or positive number as a's line sorts before, with
+     *         or after b's line.
+     */
+    static int compare(String a, String b) {
+
+        // Compare the text after each record's count
+        return compareRegion(a, a.indexOf(' ') + 1, b, b.indexOf(' ') + 1);
+    }
+
+    /**
+     * Compares the line of a record with a plain line (such as a partition
+     * splitter) without copying it.
+     *
+     * @param record The record.
+     * @param line   The line.
+     * @return A negative, zero or positive number as the record's line sorts
+     *         before, with or after the line.
+     */
+    static int compareLine(String record, String line) {
+
+        // Compare the text after the record's count with the whole line
+        return compareRegion(record, record.indexOf(' ') + 1, line, 0);
+    }
+
+    /**
+     * Compares a.substring(i) with b.substring(j) in String.compareTo order.
+     */
+    private static int compareRegion(String a, int i, String b, int j) {
+
+        // Get the lengths of the regions
+        int lengthA = a.length() - i;
+        int lengthB = b.length() - j;
+        int length = Math.min(lengthA, lengthB);
+
+        // for each char of the shorter region
+        for (int k = 0; k < length; k++) {
+
+            // Get the chars
+            char x = a.charAt(i + k);
+            char y = b.charAt(j + k);
+
+            // Check if the chars differ
+            if (x != y) {
+
+                // Return the difference
+                return x - y;
+            }
+        }
+
+        // Return the difference in length
+        return lengthA - lengthB;
+    }
+}
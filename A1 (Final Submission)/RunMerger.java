@@ -0,0 +1,188 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.util.*;
+
+/**
+ * Merges k sorted runs one line at a time. The smallest current line of each
+ * run is kept in a heap, so the merged lines can be written to a file
+ * (XSort.mergeKFiles) or handed to a caller as they are produced
+ * (ExternalSorter).
+ */
+class RunMerger implements Closeable {
+
+    // Declare variables
+    private final List<BufferedReader> readers;
+    private final Heap heap;
+    private final FileLine[] fileLines;
+
+    /**
+     * Constructor for the RunMerger class. Reads the first line of each run.
+     *
+     * @param readers    The list of readers for the sorted runs.
+     * @param comparator The comparator the runs are sorted by.
+     * @throws IOException If an I/O error occurs.
+     */
+    RunMerger(List<BufferedReader> readers, Comparator<String> comparator) throws IOException {
+
+        // Initialise variables
+        this.readers = readers;
+
+        // Create a heap to store the smallest lines from each file
+        this.heap = new Heap(readers.size(), comparator);
+
+        // Create FileLine array to store the current line and file index
+        this.fileLines = new FileLine[readers.size()];
+
+        // for each reader in readers list
+        for (int i = 0; i < readers.size(); i++) {
+
+            // Read the first line from each file
+            String line = readers.get(i).readLine();
+
+            // Check if the line is not null
+            if (line != null) {
+
+                // Store the line and file index in the FileLine array
+                fileLines[i] = new FileLine(line, i);
+
+                // Insert the line into the heap
+                heap.insert(line);
+            }
+        }
+    }
+
+    /**
+     * Returns the next line of the merged output.
+     *
+     * @return The smallest remaining line, or null once every run is exhausted.
+     * @throws IOException If an I/O error occurs.
+     */
+    String next() throws IOException {
+
+        // Check if the heap is empty
+        if (heap.isEmpty()) {
+
+            // return null (all runs exhausted)
+            return null;
+        }
+
+        // Extract the smallest line from the heap
+        String smallestLine = heap.remove();
+
+        // Variable to store the file index of the smallest line
+        int fileIndex = -1;
+
+        // Find the corresponding file index for the smallest line
+        for (int i = 0; i < fileLines.length; i++) {
+
+            // Check if the line is not null and matches the smallest line
+            if (fileLines[i] != null && fileLines[i].getLine().equals(smallestLine)) {
+
+                // Store the file index
+                fileIndex = fileLines[i].getFileIndex();
+
+                // break the loop
+                break;
+            }
+        }
+
+        // Read the next line from the file
+        String nextLine = readers.get(fileIndex).readLine();
+
+        // Check if the next line is not null
+        if (nextLine != null) {
+
+            // Update the file line for the file
+            fileLines[fileIndex] = new FileLine(nextLine, fileIndex);
+
+            // Insert the new line into the heap
+            heap.insert(nextLine);
+
+            // Check if the next line is null
+        } else {
+
+            // Mark this file as exhausted
+            fileLines[fileIndex] = null;
+        }
+
+        // Return the smallest line
+        return smallestLine;
+    }
+
+    /**
+     * Returns the number of comparisons made by the merge so far.
+     *
+     * @return The number of comparisons.
+     */
+    long getComparisons() {
+
+        // Return the heap's comparisons
+        return heap.getComparisons();
+    }
+
+    /**
+     * Closes the readers of all runs.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+
+        // for all readers
+        for (BufferedReader reader : readers) {
+
+            // Close the reader
+            reader.close();
+        }
+    }
+
+    /**
+     * Class to store the current line and file index.
+     *
+     * @param line     The current line.
+     * @param fileIndex The file index.
+     *
+     * @return The FileLine object.
+     *
+     */
+    private static class FileLine {
+
+        // Declare variables
+        private final String line;
+        private final int fileIndex;
+
+
+        // Constructor
+        public FileLine(String line, int fileIndex) {
+
+            // Initialise variables
+            this.line = line;
+            this.fileIndex = fileIndex;
+        }
+
+        /**
+         * Get the current line.
+         *
+         * @return The current line.
+         */
+        public String getLine() {
+
+            // Return the line
+            return line;
+        }
+
+        /*
+        * Get the file index.
+        *
+        * @return The file index.
+        */
+            public int getFileIndex() {
+
+            // Return the file index
+            return fileIndex;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.lang.management.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.*;
+import jdk.jfr.*;
+
+/**
+ * Counters and timers for a sort: runs created, bytes read and written,
+ * comparisons, merge passes, the time spent in each phase and in garbage
+ * collection, and the time spent in run file reads and writes and output
+ * writes (so GC time can be set against I/O time). They are exposed through the SortMetricsMBean interface, and
+ * each run and merge pass is also recorded as a JFR event (XSort.Run and
+ * XSort.MergePass) when a flight recording is running.
+ *
+ * The counters are always kept (they cost an atomic add per run or merge, and
+ * two clock reads per buffer of I/O); --metrics registers the MBean and prints a JSON summary on stderr.
+ */
+public class SortMetrics implements SortMetricsMBean {
+
+    // Name the MBean is registered under
+    static final String OBJECT_NAME = "XSort:type=SortMetrics";
+
+    // The metrics of this JVM's sorts
+    private static final SortMetrics INSTANCE = new SortMetrics();
+
+    // Declare variables
+    private final long startNanos = System.nanoTime();
+    private final long startGcMillis = totalGcMillis();
+    private final AtomicLong runsCreated = new AtomicLong();
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong inputBytes = new AtomicLong();
+    private final AtomicLong tempBytesWritten = new AtomicLong();
+    private final AtomicLong tempBytesRead = new AtomicLong();
+    private final AtomicLong outputBytes = new AtomicLong();
+    private final AtomicLong comparisons = new AtomicLong();
+    private final AtomicLong mergePasses = new AtomicLong();
+    private final AtomicLong merges = new AtomicLong();
+    private final AtomicLong runPhaseNanos = new AtomicLong();
+    private final AtomicLong mergePhaseNanos = new AtomicLong();
+    private final AtomicLong lastPassNanos = new AtomicLong();
+    private final AtomicLong outputNanos = new AtomicLong();
+    private final AtomicLong runReadNanos = new AtomicLong();
+    private final AtomicLong runWriteNanos = new AtomicLong();
+    private final AtomicLong outputWriteNanos = new AtomicLong();
+
+    /**
+     * Private constructor (use get).
+     */
+    private SortMetrics() {
+    }
+
+    /**
+     * Get the metrics of this JVM's sorts.
+     *
+     * @return The metrics.
+     */
+    static SortMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     *
+     * @throws JMException If the MBean can't be registered.
+     */
+    void register() throws JMException {
+
+        // Get the object name
+        ObjectName name = new ObjectName(OBJECT_NAME);
+
+        // Get the platform MBean server
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        // Check if the MBean is not registered yet
+        if (!server.isRegistered(name)) {
+
+            // Register the MBean
+            server.registerMBean(this, name);
+        }
+    }
+
+    /**
+     * Records input read while creating runs.
+     *
+     * @param lines The number of lines.
+     * @param bytes The number of bytes.
+     */
+    void addInput(long lines, long bytes) {
+
+        // Add the lines and bytes
+        linesRead.addAndGet(lines);
+        inputBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Starts the JFR event of an initial run (call before sorting the run).
+     *
+     * @return The started event, to pass to addRun.
+     */
+    static RunEvent startRun() {
+
+        // Create the event and start its clock
+        RunEvent event = new RunEvent();
+        event.begin();
+
+        // Return the event
+        return event;
+    }
+
+    /**
+     * Records an initial run and commits its JFR event.
+     *
+     * @param event       The run's event (from startRun).
+     * @param runFile     The path of the run file.
+     * @param lines       The number of input lines in the run.
+     * @param bytes       The size of the run file.
+     * @param comparisons The comparisons made sorting the run.
+     */
+    void addRun(RunEvent event, String runFile, long lines, long bytes, long comparisons) {
+
+        // Update the counters
+        runsCreated.incrementAndGet();
+        tempBytesWritten.addAndGet(bytes);
+        this.comparisons.addAndGet(comparisons);
+
+        // Stop the event's clock
+        event.end();
+
+        // Check if the event is being recorded
+        if (event.shouldCommit()) {
+
+            // Set the fields and commit the event
+            event.runFile = runFile;
+            event.lines = lines;
+            event.bytes = bytes;
+            event.comparisons = comparisons;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a merge of a group of runs.
+     *
+     * @param bytesRead    The total size of the merged runs.
+     * @param bytesWritten The size of the merged run.
+     */
+    void addMerge(long bytesRead, long bytesWritten) {
+
+        // Update the counters
+        merges.incrementAndGet();
+        tempBytesRead.addAndGet(bytesRead);
+        tempBytesWritten.addAndGet(bytesWritten);
+    }
+
+    /**
+     * Records the comparisons made by a merge.
+     *
+     * @param comparisons The number of comparisons.
+     */
+    void addComparisons(long comparisons) {
+
+        // Add the comparisons
+        this.comparisons.addAndGet(comparisons);
+    }
+
+    /**
+     * Starts the JFR event of a merge pass (call before merging).
+     *
+     * @return The started event, to pass to addPass.
+     */
+    static MergePassEvent startPass() {
+
+        // Create the event and start its clock
+        MergePassEvent event = new MergePassEvent();
+        event.begin();
+
+        // Return the event
+        return event;
+    }
+
+    /**
+     * Records a merge pass and commits its JFR event.
+     *
+     * @param event      The pass's event (from startPass).
+     * @param pass       The pass number.
+     * @param runsIn     The number of runs merged by the pass.
+     * @param runsOut    The number of runs written by the pass.
+     * @param bytes      The number of bytes written by the pass.
+     * @param startNanos When the pass started (System.nanoTime).
+     */
+    void addPass(MergePassEvent event, int pass, int runsIn, int runsOut, long bytes, long startNanos) {
+
+        // Update the counters
+        mergePasses.incrementAndGet();
+        lastPassNanos.set(System.nanoTime() - startNanos);
+
+        // Stop the event's clock
+        event.end();
+
+        // Check if the event is being recorded
+        if (event.shouldCommit()) {
+
+            // Set the fields and commit the event
+            event.pass = pass;
+            event.runsIn = runsIn;
+            event.runsOut = runsOut;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds the time spent creating runs.
+     *
+     * @param startNanos When the phase started (System.nanoTime).
+     */
+    void addRunPhase(long startNanos) {
+        runPhaseNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time spent merging.
+     *
+     * @param startNanos When the phase started (System.nanoTime).
+     */
+    void addMergePhase(long startNanos) {
+        mergePhaseNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time spent writing output and the bytes written.
+     *
+     * @param bytes      The number of bytes written.
+     * @param startNanos When the phase started (System.nanoTime).
+     */
+    void addOutput(long bytes, long startNanos) {
+        outputBytes.addAndGet(bytes);
+        outputNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time spent reading run files.
+     *
+     * @param startNanos When the read started (System.nanoTime).
+     */
+    void addRunRead(long startNanos) {
+        runReadNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time spent writing run files.
+     *
+     * @param startNanos When the write started (System.nanoTime).
+     */
+    void addRunWrite(long startNanos) {
+        runWriteNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time spent writing the sorted output.
+     *
+     * @param startNanos When the write started (System.nanoTime).
+     */
+    void addOutputWrite(long startNanos) {
+        outputWriteNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Wraps a run file's input stream to time its reads.
+     *
+     * @param in The run file's stream.
+     * @return The timed stream.
+     */
+    InputStream timeRunReads(InputStream in) {
+        return new TimedInputStream(in, runReadNanos);
+    }
+
+    /**
+     * Wraps a run file's output stream to time its writes.
+     *
+     * @param out The run file's stream.
+     * @return The timed stream.
+     */
+    OutputStream timeRunWrites(OutputStream out) {
+        return new TimedOutputStream(out, runWriteNanos);
+    }
+
+    /**
+     * Wraps the sorted output's stream to time its writes.
+     *
+     * @param out The output stream.
+     * @return The timed stream.
+     */
+    OutputStream timeOutputWrites(OutputStream out) {
+        return new TimedOutputStream(out, outputWriteNanos);
+    }
+
+    @Override
+    public long getRunsCreated() {
+        return runsCreated.get();
+    }
+
+    @Override
+    public long getLinesRead() {
+        return linesRead.get();
+    }
+
+    @Override
+    public long getInputBytes() {
+        return inputBytes.get();
+    }
+
+    @Override
+    public long getTempBytesWritten() {
+        return tempBytesWritten.get();
+    }
+
+    @Override
+    public long getTempBytesRead() {
+        return tempBytesRead.get();
+    }
+
+    @Override
+    public long getOutputBytes() {
+        return outputBytes.get();
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.get();
+    }
+
+    @Override
+    public long getMergePasses() {
+        return mergePasses.get();
+    }
+
+    @Override
+    public long getMerges() {
+        return merges.get();
+    }
+
+    @Override
+    public long getRunPhaseMillis() {
+        return runPhaseNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getMergePhaseMillis() {
+        return mergePhaseNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getLastPassMillis() {
+        return lastPassNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getOutputMillis() {
+        return outputNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getRunReadMillis() {
+        return runReadNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getRunWriteMillis() {
+        return runWriteNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getOutputWriteMillis() {
+        return outputWriteNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getGcMillis() {
+        return totalGcMillis() - startGcMillis;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Returns the metrics as a one-line JSON object.
+     *
+     * @return The JSON summary.
+     */
+    String toJson() {
+
+        // Build the JSON object
+        return "{\"runsCreated\":" + getRunsCreated()
+                + ",\"linesRead\":" + getLinesRead()
+                + ",\"inputBytes\":" + getInputBytes()
+                + ",\"tempBytesWritten\":" + getTempBytesWritten()
+                + ",\"tempBytesRead\":" + getTempBytesRead()
+                + ",\"outputBytes\":" + getOutputBytes()
+                + ",\"comparisons\":" + getComparisons()
+                + ",\"mergePasses\":" + getMergePasses()
+                + ",\"merges\":" + getMerges()
+                + ",\"runPhaseMillis\":" + getRunPhaseMillis()
+                + ",\"mergePhaseMillis\":" + getMergePhaseMillis()
+                + ",\"lastPassMillis\":" + getLastPassMillis()
+                + ",\"outputMillis\":" + getOutputMillis()
+                + ",\"runReadMillis\":" + getRunReadMillis()
+                + ",\"runWriteMillis\":" + getRunWriteMillis()
+                + ",\"outputWriteMillis\":" + getOutputWriteMillis()
+                + ",\"gcMillis\":" + getGcMillis()
+                + ",\"elapsedMillis\":" + getElapsedMillis() + "}";
+    }
+
+    /**
+     * Returns the total collection time of all garbage collectors.
+     */
+    private static long totalGcMillis() {
+
+        // Variable to store the total time
+        long total = 0;
+
+        // for each garbage collector
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+            // Add its collection time (-1 if unsupported)
+            total += Math.max(0, gc.getCollectionTime());
+        }
+
+        // Return the total time
+        return total;
+    }
+
+    /**
+     * Input stream that adds the time spent in each read to a counter (reads
+     * are a buffer at a time, so the clock is read once per buffer).
+     */
+    private static class TimedInputStream extends FilterInputStream {
+
+        // Declare variables
+        private final AtomicLong nanos;
+
+        /**
+         * Constructor for the TimedInputStream class.
+         */
+        TimedInputStream(InputStream in, AtomicLong nanos) {
+
+            // Initialise variables
+            super(in);
+            this.nanos = nanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            // Time the read
+            long start = System.nanoTime();
+            try {
+                return in.read();
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            // Time the read
+            long start = System.nanoTime();
+            try {
+                return in.read(b, off, len);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Output stream that adds the time spent in each write and flush to a
+     * counter.
+     */
+    private static class TimedOutputStream extends FilterOutputStream {
+
+        // Declare variables
+        private final AtomicLong nanos;
+
+        /**
+         * Constructor for the TimedOutputStream class.
+         */
+        TimedOutputStream(OutputStream out, AtomicLong nanos) {
+
+            // Initialise variables
+            super(out);
+            this.nanos = nanos;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+
+            // Time the write
+            long start = System.nanoTime();
+            try {
+                out.write(b);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            // Time the write
+            long start = System.nanoTime();
+            try {
+                out.write(b, off, len);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+
+            // Time the flush
+            long start = System.nanoTime();
+            try {
+                out.flush();
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * JFR event recorded for each initial run.
+     */
+    @Name("XSort.Run")
+    @Label("Sort Run")
+    @Category("XSort")
+    static class RunEvent extends Event {
+
+        @Label("Run File")
+        String runFile;
+
+        @Label("Lines")
+        long lines;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Comparisons")
+        long comparisons;
+    }
+
+    /**
+     * JFR event recorded for each merge pass.
+     */
+    @Name("XSort.MergePass")
+    @Label("Merge Pass")
+    @Category("XSort")
+    static class MergePassEvent extends Event {
+
+        @Label("Pass")
+        int pass;
+
+        @Label("Runs In")
+        int runsIn;
+
+        @Label("Runs Out")
+        int runsOut;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytes;
+    }
+}
@@ -0,0 +1,99 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+/**
+ * Management interface of SortMetrics, registered with the platform MBean
+ * server as "XSort:type=SortMetrics" when XSort runs with --metrics.
+ */
+public interface SortMetricsMBean {
+
+    /**
+     * @return The number of initial runs written.
+     */
+    long getRunsCreated();
+
+    /**
+     * @return The number of input lines read.
+     */
+    long getLinesRead();
+
+    /**
+     * @return The number of input bytes read.
+     */
+    long getInputBytes();
+
+    /**
+     * @return The number of bytes written to run files (initial and merged runs).
+     */
+    long getTempBytesWritten();
+
+    /**
+     * @return The number of run file bytes read by merges.
+     */
+    long getTempBytesRead();
+
+    /**
+     * @return The number of bytes written to the sorted output.
+     */
+    long getOutputBytes();
+
+    /**
+     * @return The number of line comparisons made by run sorting and merging.
+     */
+    long getComparisons();
+
+    /**
+     * @return The number of merge passes completed.
+     */
+    long getMergePasses();
+
+    /**
+     * @return The number of merge groups completed.
+     */
+    long getMerges();
+
+    /**
+     * @return The time spent creating runs, in milliseconds.
+     */
+    long getRunPhaseMillis();
+
+    /**
+     * @return The time spent merging, in milliseconds.
+     */
+    long getMergePhaseMillis();
+
+    /**
+     * @return The time taken by the last merge pass, in milliseconds.
+     */
+    long getLastPassMillis();
+
+    /**
+     * @return The time spent writing the sorted output, in milliseconds.
+     */
+    long getOutputMillis();
+
+    /**
+     * @return The time spent reading run files (merges, splits and the final run), in milliseconds.
+     */
+    long getRunReadMillis();
+
+    /**
+     * @return The time spent writing run files in this process (not by --workers), in milliseconds.
+     */
+    long getRunWriteMillis();
+
+    /**
+     * @return The time spent writing the sorted output, excluding reading and decoding, in milliseconds.
+     */
+    long getOutputWriteMillis();
+
+    /**
+     * @return The garbage collection time since the sort started, in milliseconds.
+     */
+    long getGcMillis();
+
+    /**
+     * @return The time since the sort started, in milliseconds.
+     */
+    long getElapsedMillis();
+}
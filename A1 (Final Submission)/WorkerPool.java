@@ -0,0 +1,308 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Spreads run formation over local worker processes (--workers=N), each a JVM
+ * running "XSort --worker" on this sort's class path. The input is dealt out
+ * round-robin in batches of one run length, written to each worker's standard
+ * input as raw line bytes, so every batch becomes exactly one run.
+ *
+ * When its input ends, a worker prints one line per run it wrote,
+ *
+ * lines SPACE crc32cHex SPACE path
+ *
+ * (the same fields as a merge manifest entry). The runs are registered with
+ * those checksums and merged here as usual, so a damaged run is still caught.
+ * Workers are only started once they have a batch to sort.
+ */
+class WorkerPool {
+
+    // Size of the buffer for each worker's input pipe
+    private static final int PIPE_BUFFER_SIZE = 1 << 16;
+
+    // Declare variables
+    private final int runLength;
+    private final List<String> options;
+    private final Process[] workers;
+    private final OutputStream[] inputs;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructor for the WorkerPool class.
+     *
+     * @param workers   The number of worker processes.
+     * @param runLength The number of lines per run.
+     * @param options   The options passed on to each worker (such as --locale,
+     *                  --rle and --temp-dirs).
+     */
+    WorkerPool(int workers, int runLength, List<String> options) {
+
+        // Initialise variables
+        this.runLength = runLength;
+        this.options = List.copyOf(options);
+        this.workers = new Process[workers];
+        this.inputs = new OutputStream[workers];
+    }
+
+    /**
+     * Deals the input out to the workers and collects the runs they write.
+     *
+     * @param reader  The input.
+     * @param sampler The consumer to offer each decoded line to, or null.
+     * @return The paths of the run files.
+     * @throws IOException If an I/O error occurs or a worker fails.
+     */
+    List<String> createRuns(LineReader reader, Consumer<String> sampler) throws IOException {
+
+        // Declare variables
+        long lineCount = 0;
+        int batchLines = 0;
+        int worker = 0;
+
+        // try-catch block to stop the workers if anything fails
+        try {
+
+            // while there are lines to read
+            while (reader.nextLine()) {
+
+                // Count the line
+                lineCount++;
+
+                // Get the line's bytes
+                ByteBuffer line = reader.line();
+
+                // Check if the input is being sampled
+                if (sampler != null) {
+
+                    // Offer the decoded line to the sampler
+                    sampler.accept(Charset.defaultCharset().decode(line.duplicate()).toString());
+                }
+
+                // Send the line to the current worker
+                write(worker, line);
+
+                // Check if the batch is complete
+                if (++batchLines == runLength) {
+
+                    // Move on to the next worker
+                    batchLines = 0;
+                    worker = (worker + 1) % workers.length;
+                }
+            }
+
+            // Collect the runs
+            List<String> runFiles = collect();
+
+            // Record the input read
+            SortMetrics.get().addInput(lineCount, reader.getBytesRead());
+
+            // Return the run files
+            return runFiles;
+
+            // Catch exception
+        } catch (IOException e) {
+
+            // Stop the workers and pass on the error
+            destroy();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a line and a newline to a worker's input, starting the worker if
+     * this is its first line.
+     */
+    private void write(int worker, ByteBuffer line) throws IOException {
+
+        // Check if the worker hasn't been started
+        if (workers[worker] == null) {
+
+            // Start the worker
+            start(worker);
+        }
+
+        // Get the length of the line
+        int length = line.remaining();
+
+        // Check if the scratch buffer is too small
+        if (scratch.length < length + 1) {
+
+            // Grow the scratch buffer
+            scratch = new byte[Math.max(length + 1, 2 * scratch.length)];
+        }
+
+        // Copy the line and a newline into the scratch buffer
+        line.get(scratch, 0, length);
+        scratch[length] = '\n';
+
+        // try-catch block
+        try {
+
+            // Write the line to the worker
+            inputs[worker].write(scratch, 0, length + 1);
+
+            // Catch exception
+        } catch (IOException e) {
+
+            // Throw an exception naming the worker (it has most likely exited)
+            throw new IOException("Worker " + (worker + 1) + " stopped reading input: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts a worker process with the same Java runtime, class path and
+     * default charset as this process.
+     */
+    private void start(int worker) throws IOException {
+
+        // List to store the worker's command
+        List<String> command = new ArrayList<>();
+
+        // Add the Java launcher and the runtime options
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dfile.encoding=" + Charset.defaultCharset().name());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+
+        // Add the worker mode, the passed on options and the run length
+        command.add("XSort");
+        command.add("--worker");
+        command.addAll(options);
+        command.add(String.valueOf(runLength));
+
+        // Start the worker (its errors go straight to this process's stderr)
+        workers[worker] = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+        // Buffer the worker's input
+        inputs[worker] = new BufferedOutputStream(workers[worker].getOutputStream(), PIPE_BUFFER_SIZE);
+    }
+
+    /**
+     * Ends each worker's input, reads back the runs it wrote and registers
+     * their checksums. A run's JFR event covers the wait for the worker to
+     * report it (the worker sorts and writes the run while this process waits).
+     */
+    private List<String> collect() throws IOException {
+
+        // List to store paths of run files
+        List<String> runFiles = new ArrayList<>();
+
+        // for each worker
+        for (int i = 0; i < workers.length; i++) {
+
+            // Check if the worker was never started
+            if (workers[i] == null) {
+
+                // Skip the worker
+                continue;
+            }
+
+            // End the worker's input
+            inputs[i].close();
+
+            // try with resources to read the worker's runs
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(workers[i].getInputStream()))) {
+
+                // declare line variable
+                String line;
+
+                // Start the first run's JFR event
+                SortMetrics.RunEvent event = SortMetrics.startRun();
+
+                // while there are runs to read
+                while ((line = output.readLine()) != null) {
+
+                    // Split the line into its fields (the path is last and may contain spaces)
+                    String[] fields = line.split(" ", 3);
+
+                    // Check if the line is malformed
+                    if (fields.length != 3) {
+
+                        // Throw an exception
+                        throw new IOException("Worker " + (i + 1) + " sent an invalid run: " + line);
+                    }
+
+                    // Get the run's path and line count
+                    String runFile = fields[2];
+                    long lines = Long.parseLong(fields[0]);
+
+                    // Record the checksum the worker computed while writing the run
+                    XSort.registerRun(runFile, new XSort.RunChecksum(lines, Long.parseLong(fields[1], 16)), -1);
+
+                    // Record the run in the metrics
+                    SortMetrics.get().addRun(event, runFile, lines, new File(runFile).length(), 0);
+
+                    // Add the run file to the list
+                    runFiles.add(runFile);
+
+                    // Start the next run's JFR event
+                    event = SortMetrics.startRun();
+                }
+
+                // Catch exception
+            } catch (NumberFormatException e) {
+
+                // Throw an exception
+                throw new IOException("Worker " + (i + 1) + " sent an invalid run: " + e.getMessage());
+            }
+
+            // Wait for the worker to exit
+            int exitCode = waitFor(workers[i]);
+
+            // Check if the worker failed
+            if (exitCode != 0) {
+
+                // Throw an exception
+                throw new IOException("Worker " + (i + 1) + " failed with exit code " + exitCode + ".");
+            }
+        }
+
+        // Return the list of run files
+        return runFiles;
+    }
+
+    /**
+     * Waits for a worker to exit.
+     */
+    private static int waitFor(Process worker) throws IOException {
+
+        // try-catch block
+        try {
+
+            // Return the exit code
+            return worker.waitFor();
+
+            // Catch exception
+        } catch (InterruptedException e) {
+
+            // Restore the interrupt and throw an exception
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a worker.");
+        }
+    }
+
+    /**
+     * Stops any workers that are still running.
+     */
+    private void destroy() {
+
+        // for each started worker
+        for (Process worker : workers) {
+
+            // Check if the worker was started
+            if (worker != null) {
+
+                // Stop the worker
+                worker.destroyForcibly();
+            }
+        }
+    }
+}
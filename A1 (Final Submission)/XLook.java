@@ -0,0 +1,484 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Looks up lines in a file sorted by XSort using the sparse index written with
+ * the --index option.
+ *
+ * The index holds every Nth line of the sorted output with its byte offset, so
+ * a lookup binary-searches the index and then scans at most N lines of the
+ * memory-mapped sorted file.
+ *
+ * Output sorted with --locale must be looked up with the same --locale, and
+ * its prefix lookups ignore accents and case (the collator's primary strength).
+ * The index of such output starts with a "locale<TAB>tag" line, and opening it
+ * with a different locale (or none) is an error.
+ *
+ * Usage:
+ * java XLook sorted.txt sorted.idx prefix       (lines starting with prefix)
+ * java XLook sorted.txt sorted.idx from to      (lines with from <= line < to)
+ * java XLook --locale=de sorted.txt sorted.idx prefix
+ */
+public class XLook implements Closeable {
+
+    // Size of each memory-mapped window of the sorted file
+    private static final int WINDOW_SIZE = 1 << 20;
+
+    // Start of the index's first line when the output was sorted with --locale
+    static final String LOCALE_HEADER = "locale\t";
+
+    // Declare variables
+    private final FileChannel channel;
+    private final long size;
+    private final long[] offsets;
+    private final String[] keys;
+    private final CollationEncoder collation;
+
+    /**
+     * Opens a sorted file and loads its sparse index.
+     *
+     * @param sortedFile The path of the sorted file.
+     * @param indexFile  The path of the index written while sorting.
+     * @throws IOException If an I/O error occurs or the index is malformed.
+     */
+    public XLook(String sortedFile, String indexFile) throws IOException {
+
+        // Use binary order
+        this(sortedFile, indexFile, null);
+    }
+
+    /**
+     * Opens a file sorted in a locale's order and loads its sparse index.
+     *
+     * @param sortedFile The path of the sorted file.
+     * @param indexFile  The path of the index written while sorting.
+     * @param locale     The locale the file was sorted in, or null for binary order.
+     * @throws IOException If an I/O error occurs or the index is malformed.
+     */
+    public XLook(String sortedFile, String indexFile, Locale locale) throws IOException {
+
+        // Create the collation for the locale
+        this.collation = locale == null ? null : new CollationEncoder(locale);
+
+        // Lists to store the index entries
+        List<Long> offsetList = new ArrayList<>();
+        List<String> keyList = new ArrayList<>();
+
+        // Locale the index was written with (null for binary order)
+        String indexLocale = null;
+
+        // try with resources to read the index file
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile))) {
+
+            // declare line variable
+            String line;
+
+            // while there are entries to read
+            while ((line = reader.readLine()) != null) {
+
+                // Find the separator between the offset and the key
+                int tab = line.indexOf('\t');
+
+                // Check if this is the locale header (before any entry)
+                if (offsetList.isEmpty() && indexLocale == null && line.startsWith(LOCALE_HEADER)) {
+
+                    // Get the locale the index was written with
+                    indexLocale = line.substring(LOCALE_HEADER.length());
+                    continue;
+                }
+
+                // Check if the entry is malformed
+                if (tab < 0) {
+
+                    // Throw an exception
+                    throw new IOException("Malformed index entry: " + line);
+                }
+
+                // Add the offset and key to the lists
+                offsetList.add(Long.parseLong(line.substring(0, tab)));
+                keyList.add(line.substring(tab + 1));
+            }
+        }
+
+        // Check if the index was written with a different locale
+        String lookupLocale = locale == null ? null : locale.toLanguageTag();
+        if (!Objects.equals(indexLocale, lookupLocale)) {
+
+            // Throw an exception
+            throw new IOException("Index was written with "
+                    + (indexLocale == null ? "no locale" : "locale " + indexLocale) + ", not "
+                    + (lookupLocale == null ? "no locale" : "locale " + lookupLocale) + ".");
+        }
+
+        // Copy the index into arrays
+        this.offsets = new long[offsetList.size()];
+        this.keys = keyList.toArray(new String[0]);
+
+        // for each index entry
+        for (int i = 0; i < offsets.length; i++) {
+
+            // Copy the offset
+            offsets[i] = offsetList.get(i);
+        }
+
+        // Open the sorted file
+        this.channel = FileChannel.open(Paths.get(sortedFile), StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * Returns all lines that start with the given prefix.
+     *
+     * @param prefix The prefix to look up.
+     * @return The matching lines in sorted order.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<String> lookup(String prefix) throws IOException {
+
+        // Scan from the prefix, stopping at the first line without it
+        return scan(prefix, null, prefix);
+    }
+
+    /**
+     * Returns all lines in the range from (inclusive) to to (exclusive).
+     *
+     * @param from The first key of the range.
+     * @param to   The end of the range, or null for the end of the file.
+     * @return The matching lines in sorted order.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<String> range(String from, String to) throws IOException {
+
+        // Scan from the start of the range to its end
+        return scan(from, to, null);
+    }
+
+    /**
+     * Scans the sorted file from the last indexed line before 'from' and
+     * collects lines until the range or prefix ends.
+     */
+    private List<String> scan(String from, String to, String prefix) throws IOException {
+
+        // List to store the matching lines
+        List<String> results = new ArrayList<>();
+
+        // Get the charset the sorted output was written with
+        Charset charset = Charset.defaultCharset();
+
+        // Start at the last indexed line that sorts before 'from'
+        long position = startOffset(from, prefix != null);
+
+        // while there are bytes left to scan
+        while (position < size) {
+
+            // Get the size of the next window
+            long remaining = size - position;
+            int length = (int) Math.min(WINDOW_SIZE, remaining);
+
+            // Map the next window of the file
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            // Set the start of the current line
+            int lineStart = 0;
+
+            // loop through each byte in the window
+            for (int i = 0; i <= length; i++) {
+
+                // Check if this is the end of a line (or the end of the file)
+                boolean endOfLine = i < length ? window.get(i) == '\n' : length == remaining && lineStart < length;
+
+                // Check if a line has ended
+                if (endOfLine) {
+
+                    // Decode the line
+                    String line = decodeLine(window, lineStart, i, charset);
+
+                    // Compare the line with the prefix or the range
+                    int order = prefix != null ? comparePrefix(line, prefix) : compare(line, from);
+
+                    // Check if the line is past the range or prefix
+                    if ((prefix != null && order > 0) || (to != null && compare(line, to) >= 0)) {
+
+                        // Return the matching lines
+                        return results;
+                    }
+
+                    // Check if the line has the prefix or is inside the range
+                    if (prefix != null ? order == 0 : order >= 0) {
+
+                        // Add the line to the results
+                        results.add(line);
+                    }
+
+                    // Move to the start of the next line
+                    lineStart = i + 1;
+                }
+            }
+
+            // Check if this was the last window
+            if (length == remaining) {
+
+                // break the loop
+                break;
+            }
+
+            // Check if a single line fills the whole window
+            if (lineStart == 0) {
+
+                // Throw an exception
+                throw new IOException("Line longer than " + WINDOW_SIZE + " bytes at offset " + position);
+            }
+
+            // Move to the first line that didn't fit in the window
+            position += lineStart;
+        }
+
+        // Return the matching lines
+        return results;
+    }
+
+    /**
+     * Binary searches the index for the last entry whose key sorts before the
+     * given key.
+     *
+     * @param key    The key to search for.
+     * @param prefix Whether the key is a prefix (compared with comparePrefix).
+     * @return The byte offset to start scanning from.
+     */
+    private long startOffset(String key, boolean prefix) {
+
+        // Set the search bounds
+        int low = 0;
+        int high = keys.length - 1;
+
+        // Offset of the last entry found before the key
+        long offset = 0;
+
+        // while the bounds have not crossed
+        while (low <= high) {
+
+            // Get the middle entry
+            int mid = (low + high) >>> 1;
+
+            // Check if the entry sorts before the key
+            if ((prefix ? comparePrefix(keys[mid], key) : compare(keys[mid], key)) < 0) {
+
+                // Remember the offset and search the upper half
+                offset = offsets[mid];
+                low = mid + 1;
+
+                // else search the lower half
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Return the offset
+        return offset;
+    }
+
+    /**
+     * Compares two lines in the file's order.
+     */
+    private int compare(String a, String b) {
+
+        // Compare in binary or locale order
+        return collation == null ? a.compareTo(b) : collation.compare(a, b);
+    }
+
+    /**
+     * Compares the start of a line (the prefix's length) with a prefix: 0 if
+     * the line has the prefix, negative if it sorts before the prefix's lines
+     * and positive if after them. In locale order only base letters count.
+     */
+    private int comparePrefix(String line, String prefix) {
+
+        // Get the start of the line with the prefix's length
+        String start = line.substring(0, Math.min(line.length(), prefix.length()));
+
+        // Compare in binary order, or in locale order at primary strength
+        return collation == null ? start.compareTo(prefix) : collation.comparePrimary(start, prefix);
+    }
+
+    /**
+     * Decodes one line from a mapped window, dropping a trailing carriage return.
+     */
+    private static String decodeLine(MappedByteBuffer window, int start, int end, Charset charset) {
+
+        // Check for a carriage return before the newline
+        if (end > start && window.get(end - 1) == '\r') {
+
+            // Drop the carriage return
+            end--;
+        }
+
+        // Copy the line bytes out of the window
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+
+        // Decode and return the line
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Closes the sorted file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+
+        // Close the channel
+        channel.close();
+    }
+
+    /**
+     * The main method prints the lines matching a prefix or a range.
+     *
+     * @param args the command line arguments: an optional --locale=tag, the
+     *             sorted file, index file, and either a prefix or a from/to range.
+     */
+    public static void main(String[] args) {
+
+        // Locale the file was sorted in (null for binary order)
+        Locale locale = null;
+
+        // Check for the locale option
+        if (args.length > 0 && args[0].startsWith("--locale=")) {
+
+            // try-catch block
+            try {
+
+                // Get the locale (rejecting tags that aren't understood)
+                locale = CollationEncoder.parseTag(args[0].substring("--locale=".length()));
+
+                // Catch an unknown locale
+            } catch (IllegalArgumentException e) {
+
+                // Print error message and exit the program
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+
+            // Remove the option from the arguments
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // Check and validate command line arguments
+        if (args.length < 3 || args.length > 4) {
+
+            // Print usage message
+            System.err.println("Usage: java XLook [--locale=<tag>] <sortedFile> <indexFile> <prefix> | <from> <to>");
+
+            // Exit the program
+            System.exit(1);
+        }
+
+        // try with resources to open the sorted file
+        try (XLook look = new XLook(args[0], args[1], locale)) {
+
+            // Look up the prefix or the range
+            List<String> lines = args.length == 3 ? look.lookup(args[2]) : look.range(args[2], args[3]);
+
+            // for each matching line
+            for (String line : lines) {
+
+                // Print the line
+                System.out.println(line);
+            }
+
+            // Exit with status 1 if nothing matched (like look)
+            if (lines.isEmpty()) {
+                System.exit(1);
+            }
+
+            // Catch exception
+        } catch (IOException | NumberFormatException e) {
+
+            // Print error message and exit the program
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Writes the sparse index while the sorted output is written: every Nth line
+     * is recorded as "offset<TAB>line", where offset is the line's byte offset in
+     * the output.
+     */
+    static class IndexWriter implements Closeable {
+
+        // Declare variables
+        private final BufferedWriter writer;
+        private final int interval;
+        private long offset;
+        private long count;
+
+        /**
+         * Constructor for the IndexWriter class.
+         *
+         * @param indexFile The path of the index file.
+         * @param interval  The number of lines between index entries.
+         * @param locale    The language tag of the locale the output is sorted
+         *                  in, or null for binary order.
+         * @throws IOException If the index file can't be created.
+         */
+        IndexWriter(String indexFile, int interval, String locale) throws IOException {
+
+            // Initialise variables
+            this.writer = new BufferedWriter(new FileWriter(indexFile));
+            this.interval = interval;
+
+            // Check if the output is sorted in a locale's order
+            if (locale != null) {
+
+                // Write the locale header
+                writer.write(LOCALE_HEADER + locale);
+                writer.newLine();
+            }
+        }
+
+        /**
+         * Records a line written to the output.
+         *
+         * @param line   The line.
+         * @param length The number of bytes written for the line, including the
+         *               line separator.
+         * @throws IOException If an I/O error occurs.
+         */
+        void add(String line, int length) throws IOException {
+
+            // Check if this line gets an index entry
+            if (count % interval == 0) {
+
+                // Write the offset and the line
+                writer.write(offset + "\t" + line);
+                writer.newLine();
+            }
+
+            // Move past the line
+            offset += length;
+            count++;
+        }
+
+        /**
+         * Closes the index file.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        @Override
+        public void close() throws IOException {
+
+            // Close the writer
+            writer.close();
+        }
+    }
+}
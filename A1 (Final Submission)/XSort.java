@@ -3,8 +3,14 @@
 
 // Import statements
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32C;
+import javax.management.JMException;
 
 /**
  * This code reads plain text input from standard input, creates initial runs,and
@@ -12,20 +18,293 @@ import java.util.*;
  */
 public class XSort {
 
+    // Checksums of the run files written so far, by path
+    private static final Map<String, RunChecksum> runChecksums = new ConcurrentHashMap<>();
+
+    // Charset of the run files (UTF-8 holds any line, whatever the default charset of the input and output)
+    static final Charset RUN_CHARSET = StandardCharsets.UTF_8;
+
+    // Directories run files are written to (default: "runs" in the working directory)
+    static RunDirectories runDirectories = new RunDirectories(
+            List.of(new File(System.getProperty("user.dir"), "runs")), RunDirectories.Placement.ROUND_ROBIN);
+
+    // Encoder adding collation keys to lines for --locale (null: binary order)
+    static CollationEncoder collationEncoder = null;
+
+    // Flag for run-length encoded run files (--rle, see RunLength)
+    static boolean runLengthEncoded = false;
+
+    // Worker processes that form the runs for --workers (null: runs formed in this process)
+    static WorkerPool workerPool = null;
+
+    // Input file for --input (null: standard input), and the number of ranges read from it in parallel
+    static Path inputFile = null;
+    static int inputReaders = Runtime.getRuntime().availableProcessors();
+
     /**
      * The main method reads the input from standard input, sorts the lines, and
      * writes the sorted lines to standard output.
      * 
-     * @param args the command line arguments where args[0] is the run length, and
-     *             args[1] is the merge factor (2: solo solution).
+     * @param args the command line arguments: options (--records, --index=file,
+     *             --index-interval=n, --partitions=p, --output=prefix, --resume,
+     *             --temp-dirs=dirs, --temp-placement=policy, --locale=tag,
+     *             --rle, --auto-merge, --metrics, --workers=n, --input=file,
+     *             --readers=n), followed by the run length and the merge
+     *             factor (2: solo solution).
      */
     public static void main(String[] args) {
 
+        // List to store positional arguments (run length and merge factor)
+        List<String> positional = new ArrayList<>();
+
+        // Flag for fixed-width binary record mode
+        boolean recordMode = false;
+
+        // Path of the sparse index file (null for no index) and its interval
+        String indexFile = null;
+        int indexInterval = 1024;
+
+        // Number of range partitions to write (0: single output) and their file prefix
+        int partitions = 0;
+        String outputPrefix = "part";
+
+        // Flag for resuming an interrupted merge from its manifest
+        boolean resume = false;
+
+        // Flag for the cost-based merge plan (fan-in from limits, smallest runs first)
+        boolean autoMerge = false;
+
+        // Flag for the metrics MBean and JSON summary
+        boolean metrics = false;
+
+        // Number of worker processes forming runs (0: none), and the options passed on to them
+        int workers = 0;
+        List<String> workerOptions = new ArrayList<>();
+
+        // Flag for running as a worker (form runs from stdin and list them on stdout)
+        boolean worker = false;
+
+        // List to store the temp directories for run files and how runs are placed
+        List<File> tempDirs = new ArrayList<>();
+        RunDirectories.Placement placement = RunDirectories.Placement.ROUND_ROBIN;
+
+        // try-catch block
+        try {
+
+            // for each command line argument
+            for (String arg : args) {
+
+                // Check for the record mode option
+                if (arg.equals("--records")) {
+
+                    // Sort 100-byte binary records instead of text lines
+                    recordMode = true;
+
+                    // Check for the sparse index option
+                } else if (arg.startsWith("--index=")) {
+
+                    // Write a sparse index of the sorted output to this file
+                    indexFile = arg.substring("--index=".length());
+
+                    // Check for the index interval option
+                } else if (arg.startsWith("--index-interval=")) {
+
+                    // Parse the number of lines between index entries
+                    indexInterval = parseCount(arg, "--index-interval=");
+
+                    // Check for the partitions option
+                } else if (arg.startsWith("--partitions=")) {
+
+                    // Parse the number of range partitions
+                    partitions = parseCount(arg, "--partitions=");
+
+                    // Check for the output prefix option
+                } else if (arg.startsWith("--output=")) {
+
+                    // Set the prefix of the partition files
+                    outputPrefix = arg.substring("--output=".length());
+
+                    // Check for the resume option
+                } else if (arg.equals("--resume")) {
+
+                    // Continue the merge recorded in the manifest instead of reading input
+                    resume = true;
+
+                    // Check for the auto merge option
+                } else if (arg.equals("--auto-merge")) {
+
+                    // Plan the merge from the file and memory limits and the run sizes
+                    autoMerge = true;
+
+                    // Check for the metrics option
+                } else if (arg.equals("--metrics")) {
+
+                    // Register the metrics MBean and print a summary at the end
+                    metrics = true;
+
+                    // Check for the workers option
+                } else if (arg.startsWith("--workers=")) {
+
+                    // Parse the number of worker processes
+                    workers = parseCount(arg, "--workers=");
+
+                    // Check for the worker mode (used by the coordinator to start workers)
+                } else if (arg.equals("--worker")) {
+
+                    // Form runs and list them instead of merging
+                    worker = true;
+
+                    // Check for the input file option
+                } else if (arg.startsWith("--input=")) {
+
+                    // Read the named file instead of standard input
+                    inputFile = Paths.get(arg.substring("--input=".length()));
+
+                    // Check for the input readers option
+                } else if (arg.startsWith("--readers=")) {
+
+                    // Parse the number of ranges of the input file read in parallel
+                    inputReaders = parseCount(arg, "--readers=");
+
+                    // Check for the temp directories option
+                } else if (arg.startsWith("--temp-dirs=")) {
+
+                    // Pass the option on to any workers
+                    workerOptions.add(arg);
+
+                    // for each directory in the list
+                    for (String dir : arg.substring("--temp-dirs=".length()).split(File.pathSeparator)) {
+
+                        // Check if the directory is not empty
+                        if (!dir.isEmpty()) {
+
+                            // Add the directory
+                            tempDirs.add(new File(dir));
+                        }
+                    }
+
+                    // Check for the temp placement option
+                } else if (arg.startsWith("--temp-placement=")) {
+
+                    // Pass the option on to any workers
+                    workerOptions.add(arg);
+
+                    // Get the placement policy
+                    String policy = arg.substring("--temp-placement=".length());
+
+                    // Check which policy was given
+                    if (policy.equals("round-robin")) {
+                        placement = RunDirectories.Placement.ROUND_ROBIN;
+                    } else if (policy.equals("free-space")) {
+                        placement = RunDirectories.Placement.FREE_SPACE;
+                    } else {
+
+                        // Throw an exception
+                        throw new IllegalArgumentException("Temp placement must be round-robin or free-space.");
+                    }
+
+                    // Check for the locale option
+                } else if (arg.startsWith("--locale=")) {
+
+                    // Sort in the locale's collation order
+                    collationEncoder = CollationEncoder.forTag(arg.substring("--locale=".length()));
+
+                    // Pass the option on to any workers
+                    workerOptions.add(arg);
+
+                    // Check for the run-length encoding option
+                } else if (arg.equals("--rle")) {
+
+                    // Store blocks of duplicate lines once in the run files
+                    runLengthEncoded = true;
+
+                    // Pass the option on to any workers
+                    workerOptions.add(arg);
+
+                    // Check for an unknown option
+                } else if (arg.startsWith("--")) {
+
+                    // Throw an exception
+                    throw new IllegalArgumentException("Unknown option " + arg);
+
+                    // else the argument is positional
+                } else {
+
+                    // Add the argument to the positional list
+                    positional.add(arg);
+                }
+            }
+
+            // Check if temp directories were given
+            if (!tempDirs.isEmpty() || placement != RunDirectories.Placement.ROUND_ROBIN) {
+
+                // Use the given directories, or the default "runs" directory
+                runDirectories = new RunDirectories(tempDirs.isEmpty()
+                        ? List.of(new File(System.getProperty("user.dir"), "runs")) : tempDirs, placement);
+            }
+
+            // Check if partitions are combined with an unsupported option
+            if (partitions > 0 && (recordMode || indexFile != null)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--partitions can't be combined with --records or --index.");
+            }
+
+            // Check if a text option is combined with record mode (the index is an index of text lines)
+            if (recordMode && (collationEncoder != null || runLengthEncoded || indexFile != null)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--locale, --rle and --index can't be combined with --records.");
+            }
+
+            // Check if resume or auto merge is combined with an unsupported option
+            if ((resume || autoMerge) && (recordMode || partitions > 0)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--resume and --auto-merge can't be combined with --records or"
+                        + " --partitions.");
+            }
+
+            // Check if workers are combined with an unsupported option
+            if (workers > 0 && (recordMode || resume)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--workers can't be combined with --records or --resume.");
+            }
+
+            // Check if an input file is combined with an unsupported option
+            if (inputFile != null && (recordMode || resume || workers > 0)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--input can't be combined with --records, --resume or --workers.");
+            }
+
+            // Check if the input file can't be read
+            if (inputFile != null && !Files.isRegularFile(inputFile)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Input file not found: " + inputFile);
+            }
+
+            // Catch exception
+        } catch (IllegalArgumentException e) {
+
+            // Print error message and exit the program
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+
+            // Return from the method
+            return;
+        }
+
         // Check and validate command line arguments
-        if (args.length < 1 || args.length > 2) {
+        if (positional.size() < 1 || positional.size() > 2) {
 
             // Print usage message
-            System.err.println("Usage: java XSort <runLength> [mergeFactor]");
+            System.err.println("Usage: java XSort [--records] [--index=<file>] [--index-interval=<n>]"
+                    + " [--partitions=<p> [--output=<prefix>]] [--resume] [--temp-dirs=<dir>:<dir>...]"
+                    + " [--temp-placement=round-robin|free-space] [--locale=<tag>] [--rle] [--auto-merge] [--metrics] [--workers=<n>]"
+                    + " [--input=<file> [--readers=<n>]] <runLength> [mergeFactor]");
 
             // Exit the program
             System.exit(1);
@@ -38,7 +317,7 @@ public class XSort {
         try {
 
             // Parse run length and validate value
-            runLength = Integer.parseInt(args[0]);
+            runLength = Integer.parseInt(positional.get(0));
 
             // Check if run length is between 64 and 1024
             if (runLength < 64 || runLength > 1024) {
@@ -63,12 +342,12 @@ public class XSort {
         int mergeFactor = 0;
 
         // Check if merge factor is provided
-        if (args.length == 2) {
+        if (positional.size() == 2) {
 
             // try-catch block
             try {
                 // Parse merge factor and validate value
-                mergeFactor = Integer.parseInt(args[1]);
+                mergeFactor = Integer.parseInt(positional.get(1));
 
                 // Check if merge factor is not 2
                 if (mergeFactor != 2) {
@@ -89,18 +368,129 @@ public class XSort {
             }
         }
 
+        // Check if running as a worker for another XSort
+        if (worker) {
+
+            // try-catch block
+            try {
+
+                // Form runs from standard input and list them on standard output
+                runWorker(runLength);
+
+                // Catch exception
+            } catch (IOException e) {
+
+                // Print error message and exit the program
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+
+            // Return from the method
+            return;
+        }
+
+        // Check if run formation is spread over worker processes
+        if (workers > 0) {
+
+            // Create the pool (workers start as input arrives)
+            workerPool = new WorkerPool(workers, runLength, workerOptions);
+        }
+
+        // Check if metrics were requested
+        if (metrics) {
+
+            // try-catch block
+            try {
+
+                // Register the metrics MBean (XSort:type=SortMetrics)
+                SortMetrics.get().register();
+
+                // Catch exception
+            } catch (JMException e) {
+
+                // Print warning message (the summary is still printed)
+                System.err.println("Warning: could not register metrics MBean: " + e.getMessage());
+            }
+        }
 
         // try-catch block
         try {
 
+            // Check if sorting fixed-width binary records
+            if (recordMode) {
+
+                // Generate initial sorted runs of records
+                List<String> runFiles = RecordSort.createInitialRuns(runLength);
+
+                // check if merge factor is 2
+                if (mergeFactor == 2) {
+
+                    // Merge the record runs and write the records to standard output
+                    RecordSort.performMerge(runFiles, mergeFactor);
+                }
+
+                // Return from the method
+                return;
+            }
+
+            // Check if writing range-partitioned output
+            if (partitions > 0) {
+
+                // Check if merge factor is missing
+                if (mergeFactor != 2) {
+
+                    // Print error message and exit the program
+                    System.err.println("Error: --partitions requires a merge factor.");
+                    System.exit(1);
+                }
+
+                // Create a sampler to choose the partition splitters
+                Sampler sampler = new Sampler(256 * partitions);
+
+                // Generate initial sorted runs, sampling the input as it is read
+                List<String> runFiles = createInitialRuns(runLength, sampler);
+
+                // Merge each partition into its own output file
+                performPartitionedMerge(runFiles, mergeFactor, sampler.splitters(partitions), outputPrefix);
+
+                // Return from the method
+                return;
+            }
+
+            // Check if resuming an interrupted merge
+            if (resume) {
+
+                // Check if merge factor is missing
+                if (mergeFactor != 2) {
+
+                    // Print error message and exit the program
+                    System.err.println("Error: --resume requires a merge factor.");
+                    System.exit(1);
+                }
+
+                // Continue the merge from the last checkpoint
+                resumeMerge(mergeFactor, indexFile, indexInterval);
+
+                // Return from the method
+                return;
+            }
+
+            // Check if an auto merge is missing its merge factor
+            if (autoMerge && mergeFactor != 2) {
+
+                // Print error message and exit the program
+                System.err.println("Error: --auto-merge requires a merge factor.");
+                System.exit(1);
+            }
+
             // Generate initial sorted runs of the specified length
-            List<String> runFiles = createInitialRuns(runLength);
+            List<String> runFiles = createInitialRuns(runLength, null);
 
             // check if merge factor is 2
             if (mergeFactor == 2) {
 
                 // Perform a balanced k-way merge sort on the runs
-                performMerge(runFiles, mergeFactor);
+                performMerge(runFiles, mergeFactor, autoMerge, indexFile, indexInterval);
             }
 
             // Catch exception
@@ -109,23 +499,186 @@ public class XSort {
             // Print error message and exit the program
             System.err.println("Error: " + e.getMessage());
             System.exit(1);
+
+        } finally {
+
+            // Check if metrics were requested
+            if (metrics) {
+
+                // Print the metrics summary as JSON
+                System.err.println(SortMetrics.get().toJson());
+            }
         }
     }
 
 
+    /**
+     * Parses a positive count from an option such as --partitions=4.
+     *
+     * @param arg    The command line argument.
+     * @param option The option name including '='.
+     * @return The parsed count.
+     * @throws IllegalArgumentException If the value is not a positive integer.
+     */
+    private static int parseCount(String arg, String option) {
+
+        // Parse the value after the option name
+        int value = Integer.parseInt(arg.substring(option.length()));
+
+        // Check if the value is positive
+        if (value < 1) {
+
+            // Throw an exception
+            throw new IllegalArgumentException(option.substring(0, option.length() - 1) + " must be at least 1.");
+        }
+
+        // Return the value
+        return value;
+    }
+
     /**
      * Creates initial runs of the specified length by reading lines from standard
-     * input, sorting them, and writing them to temporary files.
+     * input (or the --input file), sorting them, and writing them to temporary
+     * files.
      * 
      * @param runLength The length of each run.
+     * @param sampler   The sampler to offer each line to, or null.
      * @return The list of paths to the run files.
      * @throws IOException If an I/O error occurs.
      * @throws IllegalArgumentException If the run length is invalid.
      */
-    private static List<String> createInitialRuns(int runLength) throws IOException {
+    private static List<String> createInitialRuns(int runLength, Sampler sampler) throws IOException {
+
+        // Remember when the run phase started
+        long start = System.nanoTime();
+
+        // List to store paths of run files
+        List<String> runFiles;
+
+        // Check if reading a named input file
+        if (inputFile != null) {
+
+            // Read ranges of the file in parallel, each forming its own runs
+            runFiles = createRangeRuns(inputFile, inputReaders, runLength, sampler);
+
+            // Check if the runs are formed by worker processes
+        } else if (workerPool != null) {
+
+            // Deal standard input out to the workers, sampling each line (with its collation key) if needed
+            runFiles = workerPool.createRuns(new LineReader(LineReader.stdin()), sampler == null ? null
+                    : line -> sampler.offer(collationEncoder != null ? collationEncoder.encode(line) : line));
+
+            // else read standard input on this thread
+        } else {
+
+            // Create runs from standard input, read in large blocks
+            runFiles = createRuns(new LineReader(LineReader.stdin()), runLength, sampler);
+        }
+
+        // Record the time taken
+        SortMetrics.get().addRunPhase(start);
+
+        // check if runFiles is empty
+        if (runFiles.isEmpty()) {
+
+            // Print message
+            System.err.println("No runs created. The input file is empty.");
+        }
+
+        // Return the list of run files
+        return runFiles;
+    }
+
+    /**
+     * Creates initial runs from a named file: the file is split into byte
+     * ranges on line boundaries, and each range is read with positional reads
+     * and formed into runs on its own thread, so reads are issued in parallel.
+     *
+     * @param file      The input file.
+     * @param readers   The number of ranges (and threads).
+     * @param runLength The length of each run.
+     * @param sampler   The sampler to offer each line to, or null.
+     * @return The list of paths to the run files, in file order.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<String> createRangeRuns(Path file, int readers, int runLength, Sampler sampler)
+            throws IOException {
+
+        // try with resources to open the file (shared by all ranges)
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // Split the file into ranges of whole lines
+            List<RangeChannel> ranges = RangeChannel.split(channel, readers);
+
+            // Create a thread pool with a thread per range
+            ExecutorService pool = Executors.newFixedThreadPool(ranges.size());
+
+            // List to store the result of each range
+            List<Future<List<String>>> results = new ArrayList<>();
+
+            // for each range
+            for (RangeChannel range : ranges) {
+
+                // Submit the range to the thread pool
+                results.add(pool.submit(() -> createRuns(new LineReader(range), runLength, sampler)));
+            }
+
+            // Stop accepting tasks
+            pool.shutdown();
+
+            // List to store paths of run files
+            List<String> runFiles = new ArrayList<>();
+
+            // try-catch block
+            try {
+
+                // for each range result
+                for (Future<List<String>> result : results) {
 
-        // Create a BufferedReader to read from standard input
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+                    // Add the range's runs
+                    runFiles.addAll(result.get());
+                }
+
+                // Catch exception
+            } catch (ExecutionException e) {
+
+                // Stop the other ranges
+                pool.shutdownNow();
+
+                // Check if the range failed with an I/O error
+                if (e.getCause() instanceof IOException) {
+
+                    // Rethrow the I/O error
+                    throw (IOException) e.getCause();
+                }
+
+                // Throw an exception
+                throw new IOException("Reading input range failed: " + e.getCause(), e.getCause());
+
+                // Catch exception
+            } catch (InterruptedException e) {
+
+                // Restore the interrupt and throw an exception
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading input.", e);
+            }
+
+            // Return the list of run files
+            return runFiles;
+        }
+    }
+
+    /**
+     * Creates runs of the specified length from the lines of a reader.
+     *
+     * @param reader    The input.
+     * @param runLength The length of each run.
+     * @param sampler   The sampler to offer each line to, or null.
+     * @return The list of paths to the run files.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<String> createRuns(LineReader reader, int runLength, Sampler sampler) throws IOException {
 
         // List to store lines for each run
         List<String> lines = new ArrayList<>();
@@ -136,12 +689,32 @@ public class XSort {
         // declare string variable
         String line;
 
+        // Variable to store the number of lines read
+        long lineCount = 0;
+
         // Read input line by line and create runs
         while ((line = reader.readLine()) != null) {
 
+            // Count the line
+            lineCount++;
+
+            // Check if sorting in a locale's order
+            if (collationEncoder != null) {
+
+                // Prefix the line with its collation key
+                line = collationEncoder.encode(line);
+            }
+
             // add line to list
             lines.add(line);
 
+            // Check if the input is being sampled
+            if (sampler != null) {
+
+                // Offer the line to the sampler
+                sampler.offer(line);
+            }
+
             // Check if the run length is reached
             if (lines.size() == runLength) {
 
@@ -167,25 +740,43 @@ public class XSort {
             runFiles.add(runFile);
         }
 
-        // check if runFiles is empty
-        if (runFiles.isEmpty()) {
+        // Record the input read
+        SortMetrics.get().addInput(lineCount, reader.getBytesRead());
 
-            // Print message
-            System.err.println("No runs created. The input file is empty.");
+        // Return the list of run files
+        return runFiles;
+    }
 
-            // else verify runs
-        } else {
+    /**
+     * Runs this process as a worker of --workers: creates runs from the lines
+     * on standard input and prints each run's line count, CRC32C (hex) and path
+     * on standard output for the coordinator to register and merge.
+     *
+     * @param runLength The length of each run.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void runWorker(int runLength) throws IOException {
 
-            // Verify the sorted runs for correct sorting order and line count
-            verifyRuns(runFiles, runLength);
-        }   
+        // Create the runs
+        List<String> runFiles = createInitialRuns(runLength, null);
 
-        // Return the list of run files
-        return runFiles;
+        // for each run file
+        for (String runFile : runFiles) {
+
+            // Get the checksum computed while the run was written
+            RunChecksum checksum = runChecksums.get(runFile);
+
+            // Print the run
+            System.out.println(checksum.getLineCount() + " " + Long.toHexString(checksum.getValue()) + " " + runFile);
+        }
+
+        // Flush the list before exiting
+        System.out.flush();
     }
 
     /**
-    * Writes the sorted run to a temporary file.
+    * Writes the sorted run to a temporary file. The run is verified as it is
+    * written (sort order, line count and CRC32C, see RunChecksum).
     *
     * @param lines The list of lines to sort.
     * @return The path of the run file.
@@ -193,8 +784,45 @@ public class XSort {
      */
     private static String writeSortedRun(List<String> lines) throws IOException {
 
+        // Sort the lines into the next run directory in natural order
+        return writeSortedRun(lines, runDirectories.next(), Comparator.naturalOrder(), runLengthEncoded);
+    }
+
+    /**
+    * Writes the sorted run to a temporary file in the given directory.
+    *
+    * @param lines      The list of lines to sort.
+    * @param directory  The directory to write the run file to.
+    * @param comparator The comparator to sort the lines by.
+    * @return The path of the run file.
+    * @throws IOException If an I/O error occurs.
+     */
+    static String writeSortedRun(List<String> lines, File directory, Comparator<String> comparator)
+            throws IOException {
+
+        // Write one line per line of input
+        return writeSortedRun(lines, directory, comparator, false);
+    }
+
+    /**
+    * Writes the sorted run to a temporary file in the given directory, storing
+    * blocks of identical lines as single records if run-length encoding.
+    *
+    * @param lines      The list of lines to sort.
+    * @param directory  The directory to write the run file to.
+    * @param comparator The comparator to sort the lines by.
+    * @param runLength  Whether to write run-length encoded records (see RunLength).
+    * @return The path of the run file.
+    * @throws IOException If an I/O error occurs.
+     */
+    private static String writeSortedRun(List<String> lines, File directory, Comparator<String> comparator,
+            boolean runLength) throws IOException {
+
+        // Start the run's JFR event
+        SortMetrics.RunEvent event = SortMetrics.startRun();
+
         // Create a new heap with the size of the lines
-        Heap heap = new Heap(lines.size());
+        Heap heap = new Heap(lines.size(), comparator);
 
         // for each line in lines
         for (String line : lines) {
@@ -218,99 +846,711 @@ public class XSort {
         // Reverse the array for A-Z order
         Collections.reverse(Arrays.asList(sortedLines));
 
-        // Specify the directory for saving run files in the same directory as the code
-        File directory = new File(new File(System.getProperty("user.dir")), "runs");
-
-        // Check if the directory exists
-        if (!directory.exists()) {
-
-            // Create the directory if it doesn't exist
-            directory.mkdirs();
-        }
-
         // create file object to make run files with unique names
         File runFile = File.createTempFile("run_", ".txt", directory);
 
+        // Create a checksum to verify the run as it is written
+        RunChecksum checksum = new RunChecksum(runLength ? RunLength.ORDER : comparator);
+
+        // Variable to store the number of lines or records written
+        int written = 0;
+
         // Write the sorted run to the run file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(runFile))) {
+        try (BufferedWriter writer = newRunWriter(runFile)) {
 
             // Write each line to the file
-            for (String line : sortedLines) {
+            for (int i = 0; i < sortedLines.length; i++) {
+
+                // Get the line
+                String line = sortedLines[i];
+
+                // Check if writing run-length encoded records
+                if (runLength) {
+
+                    // Find the end of the block of identical lines
+                    int end = i + 1;
+                    while (end < sortedLines.length && sortedLines[end].equals(line)) {
+                        end++;
+                    }
+
+                    // Encode the block as one record and move past it
+                    line = RunLength.encode(line, end - i);
+                    i = end - 1;
+                }
 
                 // Write the line to the file
                 writer.write(line);
 
                 // Write a new line character
                 writer.newLine();
+
+                // Add the line to the checksum
+                checksum.update(line);
+                written++;
             }
         }
 
+        // Verify and record the run's checksum
+        registerRun(runFile.getAbsolutePath(), checksum, written);
+
+        // Record the run in the metrics
+        SortMetrics.get().addRun(event, runFile.getAbsolutePath(), lines.size(), runFile.length(),
+                heap.getComparisons());
+
         // Return the path of the run file
         return runFile.getAbsolutePath();
     }
 
     /**
-     * Performs a balanced k-way merge sort on the runs.
+     * Performs a balanced k-way merge sort on the runs (or the planned merge of
+     * --auto-merge). Progress is checkpointed to a manifest after every merge
+     * group so the merge can be resumed.
      * 
-     * @param runFiles    The list of sorted run files.
-     * @param mergeFactor The merge factor.
+     * @param runFiles      The list of sorted run files.
+     * @param mergeFactor   The merge factor.
+     * @param autoMerge     Whether to plan the merge from the limits and run sizes.
+     * @param indexFile     The path of the sparse index to write, or null.
+     * @param indexInterval The number of output lines between index entries.
      * @throws IOException If an I/O error occurs.
      * 
     */
-    private static void performMerge(List<String> runFiles, int mergeFactor) throws IOException {
+    private static void performMerge(List<String> runFiles, int mergeFactor, boolean autoMerge, String indexFile,
+            int indexInterval) throws IOException {
 
-        // Variable to store the number of passes
-        int pass = 0;
+        // Check if there is nothing to merge
+        if (runFiles.isEmpty()) {
 
+            // return from the method
+            return;
+        }
 
-        // Merge runs until there is only one run left
-        while (runFiles.size() > 1) {
+        // Create the manifest, starting at pass 0 with the initial runs
+        Manifest manifest = new Manifest(manifestFile(), mergeFactor,
+                collationEncoder == null ? null : collationEncoder.getLocale().toLanguageTag(), runLengthEncoded,
+                autoMerge);
+        manifest.save(0, runFiles, new ArrayList<>());
 
-            // List to store new run files
-            List<String> newRunFiles = new ArrayList<>();
+        // Merge the runs into a single run
+        String finalRun = mergeAll(runFiles, mergeFactor, manifest);
+
+        // Write the final sorted run to standard output
+        writeOutput(finalRun, System.out, indexFile, indexInterval);
+
+        // Delete the manifest now that the sort is complete
+        manifest.delete();
+    }
+
+    /**
+     * Resumes a merge interrupted by a crash or kill from the manifest in the
+     * runs directory, skipping the passes and merge groups already completed.
+     *
+     * @param mergeFactor   The merge factor.
+     * @param indexFile     The path of the sparse index to write, or null.
+     * @param indexInterval The number of output lines between index entries.
+     * @throws IOException If an I/O error occurs or the manifest is missing or
+     *                     inconsistent.
+     */
+    private static void resumeMerge(int mergeFactor, String indexFile, int indexInterval) throws IOException {
+
+        // Load the manifest of the interrupted merge
+        Manifest manifest = Manifest.load(manifestFile());
+
+        // Get the locale the runs were sorted in (null for binary order)
+        String locale = manifest.getLocale();
+
+        // Check if a different locale was given
+        if (collationEncoder != null && !collationEncoder.getLocale().toLanguageTag().equals(locale)) {
+
+            // Throw an exception
+            throw new IOException("Manifest was written with " + (locale == null ? "no locale" : "locale " + locale) + ".");
+        }
+
+        // Use the manifest's locale to strip the collation keys from the output
+        collationEncoder = locale == null ? null : CollationEncoder.forTag(locale);
+
+        // Merge and expand the runs in the encoding they were written in
+        runLengthEncoded = manifest.isRunLength();
+
+        // Check if the manifest was written with a different merge factor
+        if (manifest.getMergeFactor() != mergeFactor) {
+
+            // Throw an exception
+            throw new IOException("Manifest was written with merge factor " + manifest.getMergeFactor() + ".");
+        }
+
+        // Print progress message
+        System.err.println("Resuming at pass " + manifest.getPass() + " with " + manifest.getOutputs().size()
+                + " of its merge groups complete.");
+
+        // Merge the remaining runs into a single run, planning again if the merge was planned
+        String finalRun = mergeAll(manifest.getInputs(), mergeFactor, manifest);
+
+        // Write the final sorted run to standard output
+        writeOutput(finalRun, System.out, indexFile, indexInterval);
+
+        // Delete the manifest now that the sort is complete
+        manifest.delete();
+    }
+
+    /**
+     * Merges the runs into a single run, in fixed groups of 'mergeFactor' or,
+     * for --auto-merge, smallest first with the fan-in chosen from the limits.
+     *
+     * @param runFiles    The list of sorted run files.
+     * @param mergeFactor The merge factor.
+     * @param manifest    The manifest to checkpoint progress to.
+     * @return The path of the final run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String mergeAll(List<String> runFiles, int mergeFactor, Manifest manifest) throws IOException {
+
+        // Remember when the merge phase started
+        long start = System.nanoTime();
+
+        // try-finally block to record the merge time
+        try {
+
+            // Check if merging in fixed groups
+            if (!manifest.isAutoMerge()) {
+
+                // Merge in groups of 'mergeFactor'
+                return mergeRuns(runFiles, mergeFactor, manifest);
+            }
+
+            // Merge with a plan from the limits and run sizes
+            return mergePlanned(runFiles, manifest);
+
+        } finally {
+
+            // Record the time spent merging
+            SortMetrics.get().addMergePhase(start);
+        }
+    }
+
+    /**
+     * Plans a merge with a MergePlanner, prints the plan, and merges the runs
+     * smallest first.
+     *
+     * @param runFiles The list of sorted run files.
+     * @param manifest The manifest to checkpoint progress to.
+     * @return The path of the final run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String mergePlanned(List<String> runFiles, Manifest manifest) throws IOException {
+
+        // Create a planner from the open-file limit and free memory
+        MergePlanner planner = MergePlanner.fromLimits();
+
+        // List to store the sizes of the runs
+        List<Long> sizes = new ArrayList<>();
+        long total = 0;
+
+        // for each run file
+        for (String runFile : runFiles) {
+
+            // Add the run's size
+            sizes.add(new File(runFile).length());
+            total += sizes.get(sizes.size() - 1);
+        }
+
+        // Print the plan and the predicted bytes rewritten
+        System.err.println("Merge plan: " + runFiles.size() + " runs (" + total + " bytes), fan-in "
+                + planner.getFanIn() + " (open file limit " + MergePlanner.openFileLimit() + "), "
+                + planner.countMerges(runFiles.size()) + " merges, " + planner.predictRewrittenBytes(sizes)
+                + " bytes predicted to be rewritten.");
+
+        // Merge the smallest runs first
+        return mergeSmallestFirst(runFiles, planner, manifest);
+    }
+
+    /**
+     * Returns the manifest file in the first run directory.
+     */
+    private static File manifestFile() {
+
+        // Return the manifest in the first run directory
+        return new File(runDirectories.first(), "manifest.txt");
+    }
+
+    /**
+     * Merges the runs into P output files with disjoint, ordered key ranges.
+     * Each run is read once and split into one segment per partition (a run is
+     * sorted, so its lines for each partition are consecutive), then each
+     * partition merges only its own segments and is written on its own thread.
+     * The runs are read twice in all (once to split, once as segments), however
+     * many partitions there are.
+     *
+     * @param runFiles    The list of sorted run files.
+     * @param mergeFactor The merge factor.
+     * @param splitters   The P - 1 keys separating the partitions.
+     * @param prefix      The prefix of the output files (prefix.0 to prefix.P-1).
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void performPartitionedMerge(List<String> runFiles, int mergeFactor, List<String> splitters,
+            String prefix) throws IOException {
+
+        // Remember when the merge phase started
+        long start = System.nanoTime();
+
+        // Get the number of partitions
+        int partitions = splitters.size() + 1;
+
+        // Create a thread pool with a thread per partition
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(partitions,
+                Runtime.getRuntime().availableProcessors()));
+
+        // try-finally block to stop the thread pool
+        try {
+
+            // List to store the split of each run
+            List<Future<List<String>>> splits = new ArrayList<>();
+
+            // for each run file
+            for (String runFile : runFiles) {
 
-            // Merge runs in groups of 'mergeFactor'
-            for (int i = 0; i < runFiles.size(); i += mergeFactor) {
+                // Submit the run to be split into its partitions' segments
+                splits.add(pool.submit(() -> splitRun(runFile, splitters)));
+            }
+
+            // List to store the segments of each partition, in run order
+            List<List<String>> segments = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                segments.add(new ArrayList<>());
+            }
+
+            // for each run's segments
+            for (List<String> split : awaitAll(splits)) {
 
-                // List to store readers for the run files
-                List<BufferedReader> readers = new ArrayList<>();
+                // for each partition
+                for (int p = 0; p < partitions; p++) {
 
-                // for each run file in the list of run files 
-                for (int j = 0; j < mergeFactor && i + j < runFiles.size(); j++) {
+                    // Check if the run has lines in the partition
+                    if (split.get(p) != null) {
 
-                    // Add a new reader for the run file
-                    readers.add(new BufferedReader(new FileReader(runFiles.get(i + j))));
+                        // Add the segment to the partition
+                        segments.get(p).add(split.get(p));
+                    }
                 }
+            }
+
+            // List to store the result of each partition
+            List<Future<Object>> results = new ArrayList<>();
+
+            // for each partition
+            for (int p = 0; p < partitions; p++) {
+
+                // Get the partition's segments and output file
+                List<String> partitionRuns = segments.get(p);
+                String outputFile = prefix + "." + p;
+
+                // Submit the partition to the thread pool
+                results.add(pool.submit(() -> {
+
+                    // Create the partition's output file
+                    try (OutputStream out = new FileOutputStream(outputFile)) {
+
+                        // Check if there are segments to merge (else the partition is empty)
+                        if (!partitionRuns.isEmpty()) {
+
+                            // Merge the partition's segments
+                            String finalRun = mergeRuns(partitionRuns, mergeFactor, null);
+
+                            // Write the final run to the partition's output file
+                            writeOutput(finalRun, out, null, 0);
+                        }
+                    }
+
+                    // Return from the task
+                    return null;
+                }));
+            }
+
+            // Wait for every partition to finish
+            awaitAll(results);
 
-                // Create a new run file for the merged output in a "runs" directory within the working directory
-                File mergedRunFile = File.createTempFile("merged_run_", ".txt",
-                        new File(System.getProperty("user.dir"), "runs"));
+            // Record the time spent splitting, merging and writing the partitions
+            SortMetrics.get().addMergePhase(start);
 
-                // Write the merged run to the new run file
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(mergedRunFile))) {
+        } finally {
 
-                    // Merge the runs
-                    mergeKFiles(readers, writer);
+            // Stop the thread pool
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits a sorted run into one segment per partition: the lines in
+     * [splitters[p - 1], splitters[p]) go to segment p. The run's checksum is
+     * verified as it is read, and each segment's is recorded as it is written.
+     *
+     * @param runFile   The run file.
+     * @param splitters The P - 1 keys separating the partitions.
+     * @return The path of each partition's segment, or null where the run has
+     *         no lines in the partition.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<String> splitRun(String runFile, List<String> splitters) throws IOException {
+
+        // List to store the segment of each partition (null if none)
+        List<String> segments = new ArrayList<>(Collections.nCopies(splitters.size() + 1, null));
+
+        // Segment being written, its checksum and its partition
+        File segmentFile = null;
+        BufferedWriter writer = null;
+        RunChecksum checksum = null;
+        int partition = -1;
+
+        // try with resources to read the run, verifying its checksum
+        try (BufferedReader reader = new ChecksumReader(runFile)) {
+
+            // declare string variable
+            String line;
+
+            // while there are lines to read
+            while ((line = reader.readLine()) != null) {
+
+                // Find the line's partition (at or after the previous line's, as the run is sorted)
+                int p = Math.max(partition, 0);
+                while (p < splitters.size() && compareBound(line, splitters.get(p)) >= 0) {
+                    p++;
                 }
 
-                // Add the new run file to the list
-                newRunFiles.add(mergedRunFile.getAbsolutePath());
+                // Check if the line starts a new partition
+                if (p != partition) {
+
+                    // Check if a segment is being written
+                    if (writer != null) {
+
+                        // Close the segment and record its checksum
+                        writer.close();
+                        registerRun(segmentFile.getAbsolutePath(), checksum, -1);
+                    }
+
+                    // Create the partition's segment next to the run
+                    segmentFile = File.createTempFile("segment_", ".txt", new File(runFile).getParentFile());
+                    writer = newRunWriter(segmentFile);
+                    checksum = new RunChecksum(runLengthEncoded ? RunLength.ORDER : Comparator.naturalOrder());
+                    segments.set(p, segmentFile.getAbsolutePath());
+                    partition = p;
+                }
+
+                // Write the line to the segment and add it to the checksum
+                writeLine(writer, checksum, line);
+            }
+
+        } finally {
+
+            // Check if a segment is still open
+            if (writer != null) {
+
+                // Close the segment
+                writer.close();
+            }
+        }
+
+        // Check if the last segment needs its checksum recorded
+        if (segmentFile != null) {
+
+            // Record the last segment's checksum
+            registerRun(segmentFile.getAbsolutePath(), checksum, -1);
+        }
+
+        // Record the bytes read and written by the split
+        List<String> written = new ArrayList<>(segments);
+        written.removeIf(Objects::isNull);
+        SortMetrics.get().addMerge(new File(runFile).length(), totalSize(written));
+
+        // Return the segments
+        return segments;
+    }
+
+    /**
+     * Compares a run line (the line of a record if run-length encoded) with a
+     * partition splitter.
+     */
+    private static int compareBound(String line, String bound) {
+
+        // Compare the line with the bound
+        return runLengthEncoded ? RunLength.compareLine(line, bound) : line.compareTo(bound);
+    }
+
+    /**
+     * Waits for tasks to finish and returns their results in order.
+     *
+     * @param futures The tasks.
+     * @return The results.
+     * @throws IOException If a task failed or the wait was interrupted.
+     */
+    private static <T> List<T> awaitAll(List<Future<T>> futures) throws IOException {
+
+        // List to store the results
+        List<T> values = new ArrayList<>();
+
+        // try-catch block
+        try {
+
+            // for each task
+            for (Future<T> future : futures) {
+
+                // Wait for the task and add its result
+                values.add(future.get());
+            }
+
+            // Return the results
+            return values;
 
-                // for all readers
-                for (BufferedReader reader : readers) {
+            // Catch exception
+        } catch (ExecutionException e) {
+
+            // Check if the task failed with an I/O error
+            if (e.getCause() instanceof IOException) {
+
+                // Rethrow the I/O error
+                throw (IOException) e.getCause();
+            }
+
+            // Throw an exception
+            throw new IOException("Partition merge failed: " + e.getCause(), e.getCause());
+
+            // Catch exception
+        } catch (InterruptedException e) {
+
+            // Restore the interrupt and throw an exception
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging partitions.", e);
+        }
+    }
+
+    /**
+     * Merges runs in groups of 'mergeFactor' until only one run is left. If a
+     * manifest is given, the merge continues from the manifest's pass and completed
+     * groups, and the manifest is saved after every group and pass.
+     *
+     * @param runFiles    The list of sorted run files.
+     * @param mergeFactor The merge factor.
+     * @param manifest    The manifest to checkpoint progress to, or null.
+     * @return The path of the final run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String mergeRuns(List<String> runFiles, int mergeFactor, Manifest manifest)
+            throws IOException {
 
-                    // Close the reader
-                    reader.close();
+        // Variable to store the number of passes
+        int pass = manifest == null ? 0 : manifest.getPass();
+
+        // List to store the groups of the current pass already merged before a resume
+        List<String> completed = manifest == null ? new ArrayList<>() : new ArrayList<>(manifest.getOutputs());
+
+        // Merge runs until there is only one run left
+        while (runFiles.size() > 1) {
+
+            // Remember when the pass started and start its JFR event
+            long passStart = System.nanoTime();
+            SortMetrics.MergePassEvent event = SortMetrics.startPass();
+
+            // Order the runs so that each merge group reads from one device
+            runFiles = runDirectories.groupByDevice(runFiles);
+
+            // List to store new run files
+            List<String> newRunFiles = completed;
+
+            // Merge runs in groups of 'mergeFactor', skipping groups already merged
+            for (int i = completed.size() * mergeFactor; i < runFiles.size(); i += mergeFactor) {
+
+                // Get the group of runs to merge
+                List<String> group = runFiles.subList(i, Math.min(i + mergeFactor, runFiles.size()));
+
+                // Merge the group and add the new run to the list
+                newRunFiles.add(mergeGroup(group));
+
+                // Check if progress is being checkpointed
+                if (manifest != null) {
+
+                    // Record the completed group
+                    manifest.save(pass, runFiles, newRunFiles);
                 }
             }
 
+            // Record the pass in the metrics
+            SortMetrics.get().addPass(event, pass, runFiles.size(), newRunFiles.size(), totalSize(newRunFiles),
+                    passStart);
+
             // Update the list of run files for the next pass
             runFiles = newRunFiles;
+            completed = new ArrayList<>();
             pass++;
+
+            // Check if progress is being checkpointed
+            if (manifest != null) {
+
+                // Record the completed pass
+                manifest.save(pass, runFiles, completed);
+            }
         }
 
-        // Write the final sorted run to standard output
-        try (BufferedReader reader = new BufferedReader(new FileReader(runFiles.get(0)))) {
+        // Return the final run file
+        return runFiles.get(0);
+    }
+
+    /**
+     * Merges runs smallest first as planned by a MergePlanner until only one
+     * run is left. The manifest is saved after every merge with the runs still
+     * to be merged, so a resumed merge plans again from that point.
+     *
+     * @param runFiles The list of sorted run files.
+     * @param planner  The planner choosing each merge group.
+     * @param manifest The manifest to checkpoint progress to.
+     * @return The path of the final run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String mergeSmallestFirst(List<String> runFiles, MergePlanner planner, Manifest manifest)
+            throws IOException {
+
+        // Queue of the runs left to merge by size, and the runs in the order they are checkpointed
+        MergePlanner.RunQueue queue = new MergePlanner.RunQueue(runFiles);
+        Set<String> remaining = new LinkedHashSet<>(runFiles);
+
+        // Variable to store the number of merges
+        int step = manifest.getPass();
+
+        // Merge runs until there is only one run left
+        while (queue.size() > 1) {
+
+            // Remember when the merge started and start its JFR event
+            long mergeStart = System.nanoTime();
+            SortMetrics.MergePassEvent event = SortMetrics.startPass();
+
+            // Choose the smallest runs to merge (removing them from the queue)
+            List<String> group = planner.nextGroup(queue);
+
+            // Merge the group into a new run
+            String merged = mergeGroup(group);
+
+            // Record the merge as a pass in the metrics
+            SortMetrics.get().addPass(event, step, group.size(), 1, new File(merged).length(), mergeStart);
+
+            // Replace the group with the new run
+            queue.add(merged);
+            remaining.removeAll(group);
+            remaining.add(merged);
+            step++;
+
+            // Record the runs left to merge
+            manifest.save(step, new ArrayList<>(remaining), new ArrayList<>());
+        }
+
+        // Return the final run file
+        return queue.last();
+    }
+
+    /**
+     * Merges a group of runs into a new run file, on a different device from
+     * the group if possible.
+     *
+     * @param group The runs to merge.
+     * @return The path of the merged run file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static String mergeGroup(List<String> group) throws IOException {
+
+        // List to store readers for the run files
+        List<BufferedReader> readers = new ArrayList<>();
+
+        // for each run file in the group
+        for (String runFile : group) {
+
+            // Add a new reader that verifies the run's checksum
+            readers.add(new ChecksumReader(runFile));
+        }
+
+        // Create a new run file for the merged output, on a different device from the group if possible
+        File mergedRunFile = File.createTempFile("merged_run_", ".txt", runDirectories.forMerge(group));
+
+        // Write the merged run to the new run file
+        try (BufferedWriter writer = newRunWriter(mergedRunFile)) {
+
+            // Merge the runs, then verify and record the merged run's checksum
+            registerRun(mergedRunFile.getAbsolutePath(), mergeKFiles(readers, writer,
+                    runLengthEncoded ? RunLength.ORDER : Comparator.naturalOrder(), runLengthEncoded), -1);
+
+        } finally {
+
+            // for all readers
+            for (BufferedReader reader : readers) {
+
+                // Close the reader
+                reader.close();
+            }
+        }
+
+        // Record the bytes read and written by the merge
+        SortMetrics.get().addMerge(totalSize(group), mergedRunFile.length());
+
+        // Return the path of the merged run file
+        return mergedRunFile.getAbsolutePath();
+    }
+
+    /**
+     * Opens a run file for writing in RUN_CHARSET, timing its writes.
+     *
+     * @param runFile The run file.
+     * @return The writer.
+     * @throws IOException If the file can't be opened.
+     */
+    static BufferedWriter newRunWriter(File runFile) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(SortMetrics.get().timeRunWrites(
+                new FileOutputStream(runFile)), RUN_CHARSET));
+    }
+
+    /**
+     * Returns the total size of run files in bytes.
+     */
+    private static long totalSize(List<String> runFiles) {
+
+        // Variable to store the total size
+        long total = 0;
+
+        // for each run file
+        for (String runFile : runFiles) {
+
+            // Add the file's size
+            total += new File(runFile).length();
+        }
+
+        // Return the total size
+        return total;
+    }
+
+    /**
+     * Writes the final sorted run to the output stream, optionally recording a
+     * sparse index of the output (see XLook).
+     *
+     * @param runFile       The final sorted run file.
+     * @param output        The stream to write the sorted lines to.
+     * @param indexFile     The path of the index file, or null for no index.
+     * @param indexInterval The number of lines between index entries.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeOutput(String runFile, OutputStream output, String indexFile, int indexInterval)
+            throws IOException {
+
+        // Remember when writing the output started
+        long start = System.nanoTime();
+
+        // Variable to store the number of bytes written
+        long written = 0;
+
+        // Get the charset and line separator used for the output
+        Charset charset = Charset.defaultCharset();
+        byte[] separator = System.lineSeparator().getBytes(charset);
+
+        // Create a buffered stream to write the output (timing its writes)
+        OutputStream out = new BufferedOutputStream(SortMetrics.get().timeOutputWrites(output), 1 << 16);
+
+        // try with resources to read the final run file and write the index
+        try (BufferedReader reader = new ChecksumReader(runFile);
+                XLook.IndexWriter index = indexFile == null ? null : new XLook.IndexWriter(indexFile, indexInterval,
+                        collationEncoder == null ? null : collationEncoder.getLocale().toLanguageTag())) {
 
             // Read and print each line from the final run file
             String line;
@@ -318,229 +1558,724 @@ public class XSort {
             // while line is not null
             while ((line = reader.readLine()) != null) {
 
-                // Print the line
-                System.out.println(line);
+                // Number of copies of the line (a run-length encoded record holds several)
+                long copies = 1;
+
+                // Check if the run holds run-length encoded records
+                if (runLengthEncoded) {
+
+                    // Get the record's count and line
+                    copies = RunLength.count(line);
+                    line = RunLength.line(line);
+                }
+
+                // Check if the lines carry collation keys
+                if (collationEncoder != null) {
+
+                    // Remove the collation key
+                    line = CollationEncoder.decode(line);
+                }
+
+                // Encode the line
+                byte[] bytes = line.getBytes(charset);
+
+                // for each copy of the line
+                for (long copy = 0; copy < copies; copy++) {
+
+                    // Check if an index is being written
+                    if (index != null) {
+
+                        // Record the line and its byte length in the index
+                        index.add(line, bytes.length + separator.length);
+                    }
+
+                    // Write the line and a line separator
+                    out.write(bytes);
+                    out.write(separator);
+                    written += bytes.length + separator.length;
+                }
             }
         }
-    }
 
+        // Flush the output
+        out.flush();
+
+        // Record the bytes written and the time taken
+        SortMetrics.get().addOutput(written, start);
+    }
 
     /**
      * Merges k sorted files into a single sorted file.
      * 
-     * @param readers The list of readers for the input files.
-     * @param writer  The writer for the output file.
+     * @param readers    The list of readers for the input files.
+     * @param writer     The writer for the output file.
+     * @param comparator The comparator the files are sorted by.
      * @throws IOException If an I/O error occurs.
-     * @return The path of the merged run file.
+     * @return The checksum of the merged output.
      */
-    private static void mergeKFiles(List<BufferedReader> readers, BufferedWriter writer) throws IOException {
+    static RunChecksum mergeKFiles(List<BufferedReader> readers, BufferedWriter writer,
+            Comparator<String> comparator) throws IOException {
 
-        // Create a heap to store the smallest lines from each file
-        Heap heap = new Heap(readers.size());
+        // Merge the files line by line
+        return mergeKFiles(readers, writer, comparator, false);
+    }
+
+    /**
+     * Merges k sorted files into a single sorted file. If the files hold
+     * run-length encoded records, records with the same line are combined into
+     * one record, so each block of duplicates is written once.
+     *
+     * @param readers    The list of readers for the input files.
+     * @param writer     The writer for the output file.
+     * @param comparator The comparator the files are sorted by.
+     * @param runLength  Whether the files hold run-length encoded records.
+     * @throws IOException If an I/O error occurs.
+     * @return The checksum of the merged output.
+     */
+    private static RunChecksum mergeKFiles(List<BufferedReader> readers, BufferedWriter writer,
+            Comparator<String> comparator, boolean runLength) throws IOException {
 
-        // Create FileLine array to store the current line and file index
-        FileLine[] fileLines = new FileLine[readers.size()];
+        // Create a merger to read the smallest line across the files
+        RunMerger merger = new RunMerger(readers, comparator);
 
-        // for each reader in readers list
-        for (int i = 0; i < readers.size(); i++) {
+        // Create a checksum to verify the merged output as it is written
+        RunChecksum checksum = new RunChecksum(comparator);
 
-            // Read the first line from each file
-            String line = readers.get(i).readLine();
+        // Record waiting to be written (run-length encoding) and its count
+        String pending = null;
+        long pendingCount = 0;
 
-            // Check if the line is not null
-            if (line != null) {
+        // declare string variable
+        String smallestLine;
+
+        // while there are lines left to merge
+        while ((smallestLine = merger.next()) != null) {
 
-                // Store the line and file index in the FileLine array
-                fileLines[i] = new FileLine(line, i);
+            // Check if merging run-length encoded records
+            if (runLength) {
 
-                // Insert the line into the heap
-                heap.insert(line);
+                // Check if the record has the same line as the waiting record
+                if (pending != null && RunLength.compare(pending, smallestLine) == 0) {
+
+                    // Add its copies to the waiting record
+                    pendingCount += RunLength.count(smallestLine);
+                    continue;
+                }
+
+                // Check if there is a waiting record to write
+                if (pending != null) {
+
+                    // Write the waiting record with its combined count
+                    writeLine(writer, checksum, RunLength.encode(RunLength.line(pending), pendingCount));
+                }
+
+                // Wait for more copies of this record's line
+                pending = smallestLine;
+                pendingCount = RunLength.count(smallestLine);
+                continue;
             }
+
+            // Write the smallest line to the output file
+            writeLine(writer, checksum, smallestLine);
+        }
+
+        // Check if there is a waiting record to write
+        if (pending != null) {
+
+            // Write the last record with its combined count
+            writeLine(writer, checksum, RunLength.encode(RunLength.line(pending), pendingCount));
+        }
+
+        // Record the comparisons made by the merge
+        SortMetrics.get().addComparisons(merger.getComparisons());
+
+        // Return the checksum of the merged output
+        return checksum;
+    }
+
+    /**
+     * Writes a line of a merged run and adds it to the run's checksum.
+     */
+    private static void writeLine(BufferedWriter writer, RunChecksum checksum, String line) throws IOException {
+
+        // Write the line to the output file
+        writer.write(line);
+
+        // Write a new line character
+        writer.newLine();
+
+        // Add the line to the checksum
+        checksum.update(line);
+    }
+
+    /**
+     * Reports any order or line count error found while a run was written, and
+     * records the run's checksum so the run can be verified when it is read.
+     *
+     * @param runFile       The path of the run file.
+     * @param checksum      The checksum computed while writing the run.
+     * @param expectedLines The number of lines that should have been written, or
+     *                      -1 if unknown.
+     */
+    static void registerRun(String runFile, RunChecksum checksum, long expectedLines) {
+
+        // Check if the run is out of order
+        if (checksum.getOrderError() != null) {
+
+            // Print error message
+            System.err.println("Validation failed: sorting error in " + new File(runFile).getName() + " at "
+                    + checksum.getOrderError());
         }
 
-        // while heap is not empty
-        while (!heap.isEmpty()) {
+        // Check if the run has the wrong number of lines
+        if (expectedLines >= 0 && checksum.getLineCount() != expectedLines) {
+
+            // Print error message
+            System.err.println("Validation failed: line count mismatch in " + new File(runFile).getName()
+                    + ": expected " + expectedLines + ", but got " + checksum.getLineCount());
+        }
+
+        // Record the checksum
+        runChecksums.put(runFile, checksum);
+    }
 
-            // Extract the smallest line from the heap
-            String smallestLine = heap.remove();
+    /**
+     * Forgets the checksum of a run file that has been deleted.
+     *
+     * @param runFile The path of the run file.
+     */
+    static void forgetRun(String runFile) {
 
-            // Variable to store the file index of the smallest line
-            int fileIndex = -1;
+        // Remove the checksum
+        runChecksums.remove(runFile);
+    }
 
-            // Find the corresponding file index for the smallest line
-            for (int i = 0; i < fileLines.length; i++) {
+    /**
+     * Class to keep a uniform random sample of the input lines (reservoir
+     * sampling), used to choose partition splitters.
+     */
+    private static class Sampler {
 
-                // Check if the line is not null and matches the smallest line
-                if (fileLines[i] != null && fileLines[i].getLine().equals(smallestLine)) {
+        // Declare variables
+        private final String[] sample;
+        private final Random random = new Random(301);
+        private long seen;
 
-                    // Store the file index
-                    fileIndex = fileLines[i].getFileIndex();
+        // Constructor
+        public Sampler(int capacity) {
 
-                    // break the loop
-                    break;
+            // Initialise variables
+            this.sample = new String[capacity];
+        }
+
+        /**
+         * Offers a line to the sample.
+         *
+         * @param line The line.
+         */
+        public synchronized void offer(String line) {
+
+            // Check if the sample is not full yet
+            if (seen < sample.length) {
+
+                // Add the line to the sample
+                sample[(int) seen] = line;
+
+                // else replace a random sampled line with decreasing probability
+            } else {
+
+                // Pick a random position among the lines seen so far
+                long position = (long) (random.nextDouble() * (seen + 1));
+
+                // Check if the position is inside the sample
+                if (position < sample.length) {
+
+                    // Replace the sampled line
+                    sample[(int) position] = line;
                 }
             }
 
-            // Write the smallest line to the output file
-            writer.write(smallestLine);
+            // Increment the number of lines seen
+            seen++;
+        }
 
-            // Write a new line character
-            writer.newLine();
+        /**
+         * Chooses P - 1 splitters that divide the sampled lines into P ranges of
+         * roughly equal size.
+         *
+         * @param partitions The number of partitions.
+         * @return The splitters in ascending order.
+         */
+        public synchronized List<String> splitters(int partitions) {
 
-            // Read the next line from the file
-            String nextLine = readers.get(fileIndex).readLine();
+            // Get the sampled lines in sorted order
+            List<String> sorted = new ArrayList<>(Arrays.asList(sample).subList(0, (int) Math.min(seen, sample.length)));
+            Collections.sort(sorted);
 
-            // Check if the next line is not null
-            if (nextLine != null) {
+            // List to store the splitters
+            List<String> splitters = new ArrayList<>();
 
-                // Update the file line for the file
-                fileLines[fileIndex] = new FileLine(nextLine, fileIndex);
+            // for each boundary between partitions
+            for (int p = 1; p < partitions; p++) {
 
-                // Insert the new line into the heap
-                heap.insert(nextLine);
+                // Check if there are no sampled lines
+                if (sorted.isEmpty()) {
 
-                // Check if the next line is null
-            } else {
+                    // Use an empty splitter (all lines go to the last partition)
+                    splitters.add("");
 
-                // Mark this file as exhausted
-                fileLines[fileIndex] = null;
+                    // else pick the evenly spaced sampled line
+                } else {
+                    splitters.add(sorted.get(p * sorted.size() / partitions));
+                }
             }
+
+            // Return the splitters
+            return splitters;
         }
     }
 
     /**
-     * Class to store the current line and file index.
-     * 
-     * @param line     The current line.
-     * @param fileIndex The file index.
-     * 
-     * @return The FileLine object.
-     * 
+     * Class to verify a run as it is written or read: checks each line against
+     * the previous line for sort order, and keeps a line count and a running
+     * CRC32C of the lines. The CRC covers the bytes of each line as encoded in
+     * the run file (RUN_CHARSET), so it is the same whether computed from the
+     * lines written or the lines read back.
      */
-    private static class FileLine {
+    static class RunChecksum {
 
         // Declare variables
-        private final String line;
-        private final int fileIndex;
-
+        private final CRC32C crc;
+        private final Comparator<String> comparator;
+        private String previous;
+        private String orderError;
+        private long lineCount;
+        private long value;
 
         // Constructor
-        public FileLine(String line, int fileIndex) {
+        public RunChecksum() {
+
+            // Check the order of the lines by their natural order
+            this(Comparator.naturalOrder());
+        }
+
+        // Constructor for lines sorted by a comparator
+        public RunChecksum(Comparator<String> comparator) {
 
             // Initialise variables
-            this.line = line;
-            this.fileIndex = fileIndex;
+            this.crc = new CRC32C();
+            this.comparator = comparator;
+        }
+
+        // Constructor for a checksum recorded in a manifest
+        public RunChecksum(long lineCount, long value) {
+
+            // Initialise variables
+            this.crc = null;
+            this.comparator = null;
+            this.lineCount = lineCount;
+            this.value = value;
         }
 
         /**
-         * Get the current line.
-         * 
-         * @return The current line.
+         * Adds a line to the checksum.
+         *
+         * @param line The line.
          */
-        public String getLine() {
+        public void update(String line) {
 
-            // Return the line
-            return line;
+            // Check if the line sorts before the previous line
+            if (orderError == null && previous != null && comparator.compare(previous, line) > 0) {
+
+                // Record the first order error
+                orderError = "line " + lineCount + ": '" + previous + "' > '" + line + "'";
+            }
+
+            // Update the CRC with the line's bytes in the run file and a line terminator
+            crc.update(line.getBytes(RUN_CHARSET));
+            crc.update('\n');
+
+            // Remember the line and count it
+            previous = line;
+            lineCount++;
+        }
+
+        /**
+         * Get the number of lines.
+         *
+         * @return The number of lines.
+         */
+        public long getLineCount() {
+            return lineCount;
         }
 
-        /*
-        * Get the file index.
-        *
-        * @return The file index.
-        */
-            public int getFileIndex() {
+        /**
+         * Get the CRC32C of the lines.
+         *
+         * @return The CRC32C value.
+         */
+        public long getValue() {
+            return crc != null ? crc.getValue() : value;
+        }
 
-            // Return the file index
-            return fileIndex;
+        /**
+         * Get the first sort order error.
+         *
+         * @return A description of the first order error, or null if sorted.
+         */
+        public String getOrderError() {
+            return orderError;
         }
     }
 
     /**
-    * (Testing method I needed to verify the sorted runs for correct sorting order and line count).
-    *
-    * @param runFiles The list of sorted run files.
-    * @param runLength The length of each run.
-    * @throws IOException If an I/O error occurs.
+     * Reader that computes a run's checksum as it is read, and checks it against
+     * the checksum recorded when the run was written once the end of the run is
+     * reached.
      */
-    private static void verifyRuns(List<String> runFiles, int runLength) throws IOException {
+    static class ChecksumReader extends BufferedReader {
+
+        // Declare variables
+        private final String runFile;
+        private final RunChecksum checksum = new RunChecksum();
+        private boolean verified;
 
-        // Validate each run file for sorting and line count
-        boolean allValid = true;
+        // Constructor
+        public ChecksumReader(String runFile) throws IOException {
 
-        // List to store error messages
-        List<String> errorMessages = new ArrayList<>();
+            // Initialise variables
+            super(new InputStreamReader(SortMetrics.get().timeRunReads(new FileInputStream(runFile)), RUN_CHARSET));
+            this.runFile = runFile;
+        }
 
-        // Check each run file for sorting and line count
-        for (String runFilePath : runFiles) {
+        /**
+         * Reads the next line, verifying the run at the end of the file.
+         *
+         * @return The next line, or null at the end of the run.
+         * @throws IOException If an I/O error occurs or the checksum doesn't match.
+         */
+        @Override
+        public String readLine() throws IOException {
 
-            // Read all lines from the run file
-            File runFile = new File(runFilePath);
+            // Read the next line
+            String line = super.readLine();
 
-            // Read all lines from the run file
-            List<String> lines = Files.readAllLines(runFile.toPath());
+            // Check if a line was read
+            if (line != null) {
 
-            // Check if the file is sorted correctly
-            boolean isSorted = true;
+                // Add the line to the checksum
+                checksum.update(line);
 
-            // Check if the file is sorted correctly
-            for (int i = 1; i < lines.size(); i++) {
+                // Check if the run needs to be verified
+            } else if (!verified) {
 
-                // Compare the current line with the previous line
-                if (lines.get(i - 1).compareTo(lines.get(i)) > 0) {
+                // Mark the run as verified
+                verified = true;
 
-                    // If current line is less than previous line, the file is not sorted
-                    isSorted = false;
+                // Get the checksum recorded when the run was written
+                RunChecksum expected = runChecksums.get(runFile);
 
-                    // Add error message and break the loop
-                    errorMessages.add("Sorting error in " + runFile.getName() + " at line " + i + ": '"
-                            + lines.get(i - 1) + "' > '" + lines.get(i) + "'");
+                // Check if the run doesn't match what was written
+                if (expected != null && (expected.getLineCount() != checksum.getLineCount()
+                        || expected.getValue() != checksum.getValue())) {
 
-                    // break the loop
-                    break;
+                    // Throw an exception
+                    throw new IOException("Checksum mismatch in " + new File(runFile).getName() + ": wrote "
+                            + expected.getLineCount() + " lines (CRC32C " + Long.toHexString(expected.getValue())
+                            + "), read " + checksum.getLineCount() + " lines (CRC32C "
+                            + Long.toHexString(checksum.getValue()) + ")");
                 }
             }
 
-            // Check if the file has the correct number of lines
-            if (lines.size() != runLength && runFiles.indexOf(runFilePath) != runFiles.size() - 1) {
+            // Return the line
+            return line;
+        }
+    }
+
+    /**
+     * Class to checkpoint the progress of a merge: the pass number, the run files
+     * being merged in the pass (in order), the merged runs already written for
+     * the pass, the checksum of every run, the locale of --locale runs (whose
+     * lines carry collation keys), whether the runs are run-length encoded and
+     * whether the merge is auto-planned (then each "pass" is one merge).
+     * The manifest is replaced atomically so it always describes a consistent
+     * point to resume from.
+     */
+    private static class Manifest {
+
+        // Declare variables
+        private final File file;
+        private final int mergeFactor;
+        private String locale;
+        private boolean runLength;
+        private boolean autoMerge;
+        private int pass;
+        private List<String> inputs = new ArrayList<>();
+        private List<String> outputs = new ArrayList<>();
+
+        // Constructor (locale is the language tag of --locale runs, or null; runLength is set for --rle runs
+        // and autoMerge for --auto-merge)
+        public Manifest(File file, int mergeFactor, String locale, boolean runLength, boolean autoMerge) {
+
+            // Initialise variables
+            this.file = file;
+            this.mergeFactor = mergeFactor;
+            this.locale = locale;
+            this.runLength = runLength;
+            this.autoMerge = autoMerge;
+        }
+
+        /**
+         * Loads a manifest and records the checksums of its runs.
+         *
+         * @param file The manifest file.
+         * @return The manifest.
+         * @throws IOException If the manifest is missing, malformed, or refers to
+         *                     a missing run file.
+         */
+        public static Manifest load(File file) throws IOException {
+
+            // Check if the manifest exists
+            if (!file.exists()) {
+
+                // Throw an exception
+                throw new IOException("No merge to resume: " + file + " not found.");
+            }
+
+            // Declare variables
+            Manifest manifest = null;
+            int pass = 0;
+
+            // try with resources to read the manifest
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+
+                // declare line variable
+                String line;
+
+                // while there are lines to read
+                while ((line = reader.readLine()) != null) {
+
+                    // Split the line into its fields (the path is last and may contain spaces)
+                    String[] fields = line.split(" ", 4);
+
+                    // Check the type of the entry
+                    if (fields[0].equals("mergeFactor")) {
+
+                        // Create the manifest
+                        manifest = new Manifest(file, Integer.parseInt(fields[1]), null, false, false);
+
+                    } else if (fields[0].equals("pass")) {
+
+                        // Set the pass number
+                        pass = Integer.parseInt(fields[1]);
+
+                    } else if (manifest != null && fields[0].equals("locale")) {
+
+                        // Set the locale the runs were sorted in
+                        manifest.locale = fields[1];
+
+                    } else if (manifest != null && line.equals("encoding rle")) {
+
+                        // Mark the runs as run-length encoded
+                        manifest.runLength = true;
+
+                    } else if (manifest != null && line.equals("plan auto")) {
+
+                        // Mark the merge as planned smallest first
+                        manifest.autoMerge = true;
+
+                    } else if (manifest != null && fields.length == 4
+                            && (fields[0].equals("input") || fields[0].equals("output"))) {
+
+                        // Get the path of the run file
+                        String runFile = fields[3];
+
+                        // Check if the run file is missing
+                        if (!new File(runFile).exists()) {
+
+                            // Throw an exception
+                            throw new IOException("Run file in manifest is missing: " + runFile);
+                        }
+
+                        // Record the run's checksum
+                        runChecksums.put(runFile,
+                                new RunChecksum(Long.parseLong(fields[1]), Long.parseLong(fields[2], 16)));
 
-                // Non-final runs should have exactly runLength lines
-                allValid = false;
+                        // Add the run to the inputs or outputs
+                        (fields[0].equals("input") ? manifest.inputs : manifest.outputs).add(runFile);
 
-                // Add error message
-                errorMessages.add("Line count mismatch in " + runFile.getName() + ": expected "
-                        + runLength + ", but got " + lines.size());
+                    } else {
 
-                // Check if the file has the correct number of lines
-            } else if (lines.size() > runLength) {
+                        // Throw an exception
+                        throw new IOException("Malformed manifest entry: " + line);
+                    }
+                }
 
-                // Final run can have less than or equal to runLength lines
-                allValid = false;
+                // Catch exception
+            } catch (NumberFormatException e) {
 
-                // Add error message
-                errorMessages.add("Line count exceeds run length in " + runFile.getName() + ": got "
-                        + lines.size() + " lines");
+                // Throw an exception
+                throw new IOException("Malformed manifest: " + e.getMessage(), e);
             }
 
-            // If the file is not sorted, set allValid to false
-            if (!isSorted) {
-                allValid = false;
+            // Check if the manifest is empty
+            if (manifest == null || manifest.inputs.isEmpty()) {
+
+                // Throw an exception
+                throw new IOException("Malformed manifest: no runs recorded.");
             }
+
+            // Set the pass number and return the manifest
+            manifest.pass = pass;
+            return manifest;
         }
 
-        // Print validation results
-        if (allValid) {
+        /**
+         * Replaces the manifest with the given state.
+         *
+         * @param pass    The current pass.
+         * @param inputs  The runs being merged in the pass.
+         * @param outputs The merged runs already written in the pass.
+         * @throws IOException If an I/O error occurs.
+         */
+        public void save(int pass, List<String> inputs, List<String> outputs) throws IOException {
+
+            // Update the state
+            this.pass = pass;
+            this.inputs = new ArrayList<>(inputs);
+            this.outputs = new ArrayList<>(outputs);
 
-            // Print success message
-            // System.out.println("All runs are valid. Sorting and line count are correct
-            // for all files.");
-        } else {
+            // Write the new manifest next to the old one
+            File temp = new File(file.getPath() + ".tmp");
+
+            // try with resources to write the new manifest
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+
+                // Write the merge factor and pass number
+                writer.write("mergeFactor " + mergeFactor);
+                writer.newLine();
+                writer.write("pass " + pass);
+                writer.newLine();
+
+                // Write the locale the runs are sorted in
+                if (locale != null) {
+                    writer.write("locale " + locale);
+                    writer.newLine();
+                }
 
-            // Print error messages
-            System.err.println("Validation failed for the following runs:");
-            for (String error : errorMessages) {
-                System.err.println(error);
+                // Write the run file encoding
+                if (runLength) {
+                    writer.write("encoding rle");
+                    writer.newLine();
+                }
+
+                // Write the merge plan
+                if (autoMerge) {
+                    writer.write("plan auto");
+                    writer.newLine();
+                }
+
+                // Write each input and output run with its checksum
+                writeRuns(writer, "input", inputs);
+                writeRuns(writer, "output", outputs);
+            }
+
+            // Replace the old manifest
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Writes one manifest entry per run: type, line count, CRC32C and path.
+         */
+        private static void writeRuns(BufferedWriter writer, String type, List<String> runFiles) throws IOException {
+
+            // for each run file
+            for (String runFile : runFiles) {
+
+                // Get the run's checksum
+                RunChecksum checksum = runChecksums.get(runFile);
+
+                // Write the entry
+                writer.write(type + " " + checksum.getLineCount() + " " + Long.toHexString(checksum.getValue()) + " "
+                        + runFile);
+                writer.newLine();
             }
         }
+
+        /**
+         * Deletes the manifest once the sort is complete.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        public void delete() throws IOException {
+
+            // Delete the manifest
+            Files.deleteIfExists(file.toPath());
+        }
+
+        /**
+         * Get the merge factor.
+         *
+         * @return The merge factor.
+         */
+        public int getMergeFactor() {
+            return mergeFactor;
+        }
+
+        /**
+         * Get the locale the runs were sorted in.
+         *
+         * @return The language tag, or null for binary order.
+         */
+        public String getLocale() {
+            return locale;
+        }
+
+        /**
+         * Get whether the runs are run-length encoded.
+         *
+         * @return true for --rle runs.
+         */
+        public boolean isRunLength() {
+            return runLength;
+        }
+
+        /**
+         * Get whether the merge is planned smallest first (--auto-merge).
+         *
+         * @return true for an auto-planned merge.
+         */
+        public boolean isAutoMerge() {
+            return autoMerge;
+        }
+
+        /**
+         * Get the current pass.
+         *
+         * @return The pass number.
+         */
+        public int getPass() {
+            return pass;
+        }
+
+        /**
+         * Get the runs being merged in the current pass.
+         *
+         * @return The input runs.
+         */
+        public List<String> getInputs() {
+            return inputs;
+        }
+
+        /**
+         * Get the merged runs already written in the current pass.
+         *
+         * @return The output runs.
+         */
+        public List<String> getOutputs() {
+            return outputs;
+        }
     }
 
 }
\ No newline at end of file
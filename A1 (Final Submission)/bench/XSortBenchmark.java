@@ -0,0 +1,404 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Micro-benchmarks for the sort's building blocks, in the style of JMH
+ * (warmup iterations, measured iterations, mean and error per benchmark) but
+ * with no dependencies, so it runs from the source tree:
+ *
+ * javac -d bench/classes *.java bench/XSortBenchmark.java
+ * java -cp bench/classes XSortBenchmark [options]
+ *
+ * Benchmarks (all report input lines per second):
+ * heap.insertRemove  Heap.insert of every line, then Heap.remove until empty
+ * heap.heapsort      Heap.heapsort(array) (builds the heap once, then sorts it)
+ * base.arraysSort    Arrays.sort (baseline)
+ * base.priorityQueue PriorityQueue add and poll (baseline)
+ * run.write          XSort.writeSortedRun (sort and write one run file)
+ * merge.k            XSort.mergeKFiles of k run files, for each k
+ *
+ * Each benchmark runs on every input distribution: random, sorted, reversed,
+ * duplicates (few distinct lines) and longPrefix (lines sharing a 64-char
+ * prefix, so every comparison scans the prefix).
+ *
+ * Options:
+ * --lines=N        lines per input (default 100000)
+ * --warmup=N       warmup iterations (default 3)
+ * --iterations=N   measured iterations (default 5)
+ * --k=a,b,...      merge fan-ins (default 2,4,16,64)
+ * --filter=text    only run benchmarks whose name contains the text
+ */
+public class XSortBenchmark {
+
+    // Input distributions
+    private static final String[] DISTRIBUTIONS = { "random", "sorted", "reversed", "duplicates", "longPrefix" };
+
+    // Result sink, so the JIT can't drop the measured work
+    private static volatile Object sink;
+
+    // Declare variables
+    private final int lines;
+    private final int warmup;
+    private final int iterations;
+    private final int[] fanIns;
+    private final String filter;
+    private final File directory;
+
+    /**
+     * Constructor for the XSortBenchmark class.
+     *
+     * @param lines      The number of lines per input.
+     * @param warmup     The number of warmup iterations.
+     * @param iterations The number of measured iterations.
+     * @param fanIns     The merge fan-ins to measure.
+     * @param filter     The text benchmark names must contain.
+     * @param directory  The directory for run files.
+     */
+    XSortBenchmark(int lines, int warmup, int iterations, int[] fanIns, String filter, File directory) {
+
+        // Initialise variables
+        this.lines = lines;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.fanIns = fanIns;
+        this.filter = filter;
+        this.directory = directory;
+    }
+
+    /**
+     * A benchmark body: processes one copy of the input.
+     */
+    interface Body {
+
+        /**
+         * Runs the benchmark once.
+         *
+         * @param input A fresh copy of the input lines.
+         * @throws IOException If an I/O error occurs.
+         */
+        void run(String[] input) throws IOException;
+    }
+
+    /**
+     * Runs all benchmarks that match the filter and prints a results table.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void runAll() throws IOException {
+
+        // Print the table header
+        System.out.printf("%-22s %-11s %16s %14s%n", "Benchmark", "Input", "lines/s", "error (95%)");
+
+        // for each distribution
+        for (String distribution : DISTRIBUTIONS) {
+
+            // Generate the input
+            String[] input = generate(distribution, lines, new Random(301));
+
+            // Measure the heap operations
+            measure("heap.insertRemove", distribution, input, data -> {
+                Heap heap = new Heap(data.length);
+                for (String line : data) {
+                    heap.insert(line);
+                }
+                String last = null;
+                while (!heap.isEmpty()) {
+                    last = heap.remove();
+                }
+                sink = last;
+            });
+            measure("heap.heapsort", distribution, input, data -> {
+                Heap heap = new Heap(data.length);
+                heap.heapsort(data);
+                sink = heap.getHeapArray();
+            });
+
+            // Measure the baselines
+            measure("base.arraysSort", distribution, input, data -> {
+                Arrays.sort(data);
+                sink = data;
+            });
+            measure("base.priorityQueue", distribution, input, data -> {
+                PriorityQueue<String> queue = new PriorityQueue<>(data.length);
+                for (String line : data) {
+                    queue.add(line);
+                }
+                String last = null;
+                while (!queue.isEmpty()) {
+                    last = queue.poll();
+                }
+                sink = last;
+            });
+
+            // Measure writing a run
+            measure("run.write", distribution, input, data -> {
+                String runFile = XSort.writeSortedRun(Arrays.asList(data), directory, Comparator.naturalOrder());
+                XSort.forgetRun(runFile);
+                Files.delete(Paths.get(runFile));
+            });
+
+            // for each fan-in
+            for (int k : fanIns) {
+
+                // Measure merging k runs of the input
+                measureMerge(distribution, input, k);
+            }
+        }
+    }
+
+    /**
+     * Writes the input as k sorted runs and measures merging them.
+     */
+    private void measureMerge(String distribution, String[] input, int k) throws IOException {
+
+        // Get the benchmark name
+        String name = "merge.k" + k;
+
+        // Check if the benchmark is filtered out
+        if (!name.contains(filter)) {
+
+            // return from the method
+            return;
+        }
+
+        // List to store the run files
+        List<String> runFiles = new ArrayList<>();
+
+        // for each run
+        for (int r = 0; r < k; r++) {
+
+            // Get the run's share of the input, sorted
+            String[] run = Arrays.copyOfRange(input, r * input.length / k, (r + 1) * input.length / k);
+            Arrays.sort(run);
+
+            // Write the run file
+            File runFile = File.createTempFile("bench_run_", ".txt", directory);
+            Files.write(runFile.toPath(), Arrays.asList(run));
+            runFiles.add(runFile.getPath());
+        }
+
+        // Create the file for the merged output
+        File output = File.createTempFile("bench_merged_", ".txt", directory);
+
+        // try-finally block to delete the files
+        try {
+
+            // Measure the merge
+            measure(name, distribution, input, data -> {
+                List<BufferedReader> readers = new ArrayList<>();
+                for (String runFile : runFiles) {
+                    readers.add(new BufferedReader(new FileReader(runFile)));
+                }
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+                    sink = XSort.mergeKFiles(readers, writer, Comparator.naturalOrder());
+                }
+                for (BufferedReader reader : readers) {
+                    reader.close();
+                }
+            });
+
+        } finally {
+
+            // Delete the run files and the output
+            for (String runFile : runFiles) {
+                Files.deleteIfExists(Paths.get(runFile));
+            }
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+
+    /**
+     * Runs the warmup and measured iterations of a benchmark and prints its
+     * throughput (mean and 95% confidence error over the iterations).
+     */
+    private void measure(String name, String distribution, String[] input, Body body) throws IOException {
+
+        // Check if the benchmark is filtered out
+        if (!name.contains(filter)) {
+
+            // return from the method
+            return;
+        }
+
+        // Run the warmup iterations
+        for (int i = 0; i < warmup; i++) {
+            body.run(input.clone());
+        }
+
+        // Array to store the throughput of each measured iteration
+        double[] throughput = new double[iterations];
+
+        // for each measured iteration
+        for (int i = 0; i < iterations; i++) {
+
+            // Copy the input outside of the timed region
+            String[] data = input.clone();
+
+            // Time the body
+            long start = System.nanoTime();
+            body.run(data);
+            long nanos = System.nanoTime() - start;
+
+            // Record lines per second
+            throughput[i] = input.length * 1e9 / Math.max(1, nanos);
+        }
+
+        // Compute the mean and the standard deviation
+        double mean = Arrays.stream(throughput).average().orElse(0);
+        double variance = Arrays.stream(throughput).map(t -> (t - mean) * (t - mean)).sum()
+                / Math.max(1, iterations - 1);
+
+        // Print the result (error: about two standard errors)
+        System.out.printf("%-22s %-11s %16.0f %14.0f%n", name, distribution, mean,
+                1.96 * Math.sqrt(variance / iterations));
+    }
+
+    /**
+     * Generates input lines with the given distribution.
+     *
+     * @param distribution The distribution name.
+     * @param count        The number of lines.
+     * @param random       The random number generator.
+     * @return The lines.
+     */
+    static String[] generate(String distribution, int count, Random random) {
+
+        // Array to store the lines
+        String[] lines = new String[count];
+
+        // Shared prefix for the longPrefix distribution
+        String prefix = randomLine(random, 64, 64);
+
+        // Distinct lines for the duplicates distribution
+        String[] distinct = new String[100];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = randomLine(random, 1, 40);
+        }
+
+        // for each line
+        for (int i = 0; i < count; i++) {
+
+            // Generate the line
+            switch (distribution) {
+                case "duplicates":
+                    lines[i] = distinct[random.nextInt(distinct.length)];
+                    break;
+                case "longPrefix":
+                    lines[i] = prefix + randomLine(random, 1, 16);
+                    break;
+                default:
+                    lines[i] = randomLine(random, 1, 80);
+                    break;
+            }
+        }
+
+        // Order the lines for the sorted and reversed distributions
+        if (distribution.equals("sorted") || distribution.equals("reversed")) {
+            Arrays.sort(lines, distribution.equals("sorted") ? Comparator.naturalOrder() : Comparator.reverseOrder());
+        }
+
+        // Return the lines
+        return lines;
+    }
+
+    /**
+     * Generates a line of printable ASCII with a length in [min, max].
+     */
+    private static String randomLine(Random random, int min, int max) {
+
+        // Create a char array of a random length
+        char[] chars = new char[min + random.nextInt(max - min + 1)];
+
+        // for each char
+        for (int i = 0; i < chars.length; i++) {
+
+            // Pick a printable ASCII char
+            chars[i] = (char) (' ' + random.nextInt(95));
+        }
+
+        // Return the line
+        return new String(chars);
+    }
+
+    /**
+     * The main method parses the options and runs the benchmarks.
+     *
+     * @param args the command line arguments (see the class comment).
+     */
+    public static void main(String[] args) {
+
+        // Declare variables with their defaults
+        int lines = 100000;
+        int warmup = 3;
+        int iterations = 5;
+        int[] fanIns = { 2, 4, 16, 64 };
+        String filter = "";
+
+        // try-catch block
+        try {
+
+            // for each command line argument
+            for (String arg : args) {
+
+                // Check which option was given
+                if (arg.startsWith("--lines=")) {
+                    lines = Integer.parseInt(arg.substring("--lines=".length()));
+                } else if (arg.startsWith("--warmup=")) {
+                    warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+                } else if (arg.startsWith("--iterations=")) {
+                    iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+                } else if (arg.startsWith("--k=")) {
+                    fanIns = Arrays.stream(arg.substring("--k=".length()).split(",")).mapToInt(Integer::parseInt)
+                            .toArray();
+                } else if (arg.startsWith("--filter=")) {
+                    filter = arg.substring("--filter=".length());
+                } else {
+
+                    // Throw an exception
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+
+            // Check if the values are valid
+            if (lines < 1 || warmup < 0 || iterations < 1 || Arrays.stream(fanIns).anyMatch(k -> k < 1)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Lines, iterations and fan-ins must be at least 1.");
+            }
+
+            // Catch exception
+        } catch (IllegalArgumentException e) {
+
+            // Print error message and exit the program
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java XSortBenchmark [--lines=N] [--warmup=N] [--iterations=N] [--k=a,b,...]"
+                    + " [--filter=text]");
+            System.exit(1);
+        }
+
+        // try-catch block
+        try {
+
+            // Create a temp directory for the run files
+            File directory = Files.createTempDirectory("xsort_bench").toFile();
+
+            // Run the benchmarks
+            new XSortBenchmark(lines, warmup, iterations, fanIns, filter, directory).runAll();
+
+            // Delete the temp directory
+            Files.deleteIfExists(directory.toPath());
+
+            // Catch exception
+        } catch (IOException e) {
+
+            // Print error message and exit the program
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
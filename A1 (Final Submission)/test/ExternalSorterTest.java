@@ -0,0 +1,177 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Tests ExternalSorter.sort(Iterator) on lines that fit in memory and on lines
+ * that are spread over several runs, and checks that a line containing '\n'
+ * or '\r' is rejected with an IllegalArgumentException before it is written
+ * (rather than being split in a run file) and that no run files are left
+ * behind. It runs from the source tree with no test library:
+ *
+ * javac -d test/classes *.java test/ExternalSorterTest.java
+ * java -cp test/classes ExternalSorterTest
+ *
+ * It prints one line per case and exits with status 1 if any case failed.
+ */
+public class ExternalSorterTest {
+
+    /**
+     * The main method runs every case.
+     *
+     * @param args the command line arguments (unused).
+     * @throws Exception If a sort can't be run.
+     */
+    public static void main(String[] args) throws Exception {
+
+        // Flag for a failed case
+        boolean failed = false;
+
+        // Run each case and print the result
+        failed |= report("sorted in memory", sortCase(List.of("c", "a", "b")));
+        failed |= report("sorted from runs", sortCase(List.of("f", "e", "d", "c", "b", "a", "b")));
+        failed |= report("newline in memory", rejectCase(List.of("a", "b\nx", "c")));
+        failed |= report("newline after runs", rejectCase(List.of("f", "e", "d", "c", "b\nx", "a")));
+        failed |= report("carriage return after runs", rejectCase(List.of("f", "e", "d", "c", "b\rx", "a")));
+
+        // Exit with status 1 if any case failed
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the result of a case.
+     *
+     * @param name  The case's name.
+     * @param error A description of the failure, or null if the case passed.
+     * @return Whether the case failed.
+     */
+    private static boolean report(String name, String error) {
+
+        // Print the result
+        System.out.println((error == null ? "ok   " : "FAIL ") + name + (error == null ? "" : ": " + error));
+
+        // Return whether the case failed
+        return error != null;
+    }
+
+    /**
+     * Sorts lines with two lines per run and checks the output.
+     *
+     * @param lines The lines to sort.
+     * @return A description of the failure, or null if the case passed.
+     * @throws IOException If the sort fails.
+     */
+    private static String sortCase(List<String> lines) throws IOException {
+
+        // Create a temp directory for the runs
+        Path directory = Files.createTempDirectory("sorter_test_");
+
+        // try-finally block to delete the temp directory
+        try {
+
+            // List to store the sorted lines
+            List<String> sorted = new ArrayList<>();
+
+            // Sort the lines and read the result
+            try (ExternalSorter.CloseableIterator<String> result = sorter(directory).sort(lines.iterator())) {
+                result.forEachRemaining(sorted::add);
+            }
+
+            // Sort the expected lines
+            List<String> expected = new ArrayList<>(lines);
+            Collections.sort(expected);
+
+            // Check if the output differs
+            if (!sorted.equals(expected)) {
+                return "got " + sorted + ", expected " + expected;
+            }
+
+            // Check if closing the result left run files behind
+            return leftovers(directory);
+
+        } finally {
+
+            // Delete the temp directory
+            delete(directory);
+        }
+    }
+
+    /**
+     * Sorts lines with two lines per run and checks that they are rejected.
+     *
+     * @param lines The lines to sort (one containing a line terminator).
+     * @return A description of the failure, or null if the case passed.
+     * @throws IOException If the sort fails with an I/O error.
+     */
+    private static String rejectCase(List<String> lines) throws IOException {
+
+        // Create a temp directory for the runs
+        Path directory = Files.createTempDirectory("sorter_test_");
+
+        // try-finally block to delete the temp directory
+        try {
+
+            // try-catch block to catch the rejection
+            try (ExternalSorter.CloseableIterator<String> result = sorter(directory).sort(lines.iterator())) {
+
+                // Return the failure (the line was accepted)
+                List<String> sorted = new ArrayList<>();
+                result.forEachRemaining(sorted::add);
+                return "accepted, sorted as " + sorted;
+
+                // Catch the rejection
+            } catch (IllegalArgumentException e) {
+
+                // Check if the runs written before the line were left behind
+                return leftovers(directory);
+            }
+
+        } finally {
+
+            // Delete the temp directory
+            delete(directory);
+        }
+    }
+
+    /**
+     * Creates a sorter that writes a run every two lines to a directory.
+     */
+    private static ExternalSorter sorter(Path directory) {
+        return new ExternalSorter(new ExternalSorter.Config().runLength(2).fanIn(2)
+                .tempDirs(List.of(directory.toFile())));
+    }
+
+    /**
+     * Describes the files left in a directory, or returns null if it is empty.
+     */
+    private static String leftovers(Path directory) throws IOException {
+
+        // List the directory's files
+        String[] files = directory.toFile().list();
+
+        // Return the files left behind, or null if there are none
+        return files == null || files.length == 0 ? null : "left " + Arrays.toString(files);
+    }
+
+    /**
+     * Deletes a directory and its files.
+     */
+    private static void delete(Path directory) throws IOException {
+
+        // for each file in the directory
+        for (File file : Objects.requireNonNull(directory.toFile().listFiles())) {
+
+            // Delete the file
+            Files.delete(file.toPath());
+        }
+
+        // Delete the directory
+        Files.delete(directory);
+    }
+}
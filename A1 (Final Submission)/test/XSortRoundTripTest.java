@@ -0,0 +1,185 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Round-trip test of XSort on non-ASCII input: sorts lines with accents and
+ * CJK characters (UTF-8 bytes) under several default charsets and options, and
+ * checks that each sort exits normally, reports no validation or checksum
+ * error, and writes exactly the input lines, decoded and re-encoded in the
+ * charset, in sorted order. It runs from the source tree with no test library:
+ *
+ * javac -d test/classes *.java test/XSortRoundTripTest.java
+ * java -cp test/classes XSortRoundTripTest
+ *
+ * It prints one line per case and exits with status 1 if any case failed.
+ */
+public class XSortRoundTripTest {
+
+    // Charsets the sort is run under (the default charset of the input and output)
+    private static final String[] CHARSETS = { "US-ASCII", "ISO-8859-1", "UTF-8" };
+
+    // Options the sort is run with
+    private static final String[][] OPTIONS = { {}, { "--rle" }, { "--locale=de" } };
+
+    // Words the input lines are made from (escaped so the source is ASCII): zebre, Apfel, apfel, Ol, naive, cafe,
+    // Tokyo, abc, Zurich and nandu, with their accents and CJK characters
+    private static final String[] WORDS = { "z\u00e8bre", "\u00c4pfel", "apfel", "\u00d6l", "na\u00efve", "caf\u00e9",
+            "\u6771\u4eac", "abc", "Z\u00fcrich", "\u00f1and\u00fa", "x" };
+
+    /**
+     * The main method runs every case.
+     *
+     * @param args the command line arguments (unused).
+     * @throws Exception If a sort can't be run.
+     */
+    public static void main(String[] args) throws Exception {
+
+        // Generate the input lines with a fixed seed (with duplicates, for --rle)
+        Random random = new Random(301);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add(WORDS[random.nextInt(WORDS.length)] + random.nextInt(50));
+        }
+
+        // Encode the input as UTF-8
+        byte[] input = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        // Flag for a failed case
+        boolean failed = false;
+
+        // for each charset and options
+        for (String charset : CHARSETS) {
+            for (String[] options : OPTIONS) {
+
+                // Run the case and print the result
+                String error = runCase(input, Charset.forName(charset), options);
+                System.out.println((error == null ? "ok   " : "FAIL ") + charset + " " + String.join(" ", options)
+                        + (error == null ? "" : ": " + error));
+                failed |= error != null;
+            }
+        }
+
+        // Exit with status 1 if any case failed
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sorts the input in a new process and checks the output.
+     *
+     * @param input   The input bytes.
+     * @param charset The default charset of the sort.
+     * @param options The sort's options.
+     * @return A description of the failure, or null if the case passed.
+     * @throws Exception If the sort can't be run.
+     */
+    private static String runCase(byte[] input, Charset charset, String[] options) throws Exception {
+
+        // Create a working directory for the run files
+        Path directory = Files.createTempDirectory("xsort_test_");
+
+        // try-finally block to delete the working directory
+        try {
+
+            // Sort in the directory and check the output
+            return runCase(directory, input, charset, options);
+
+        } finally {
+
+            // Delete the directory and everything the sort left in it
+            delete(directory);
+        }
+    }
+
+    /**
+     * Sorts the input in a new process in a working directory and checks the
+     * output.
+     *
+     * @param directory The working directory.
+     * @param input     The input bytes.
+     * @param charset   The default charset of the sort.
+     * @param options   The sort's options.
+     * @return A description of the failure, or null if the case passed.
+     * @throws Exception If the sort can't be run.
+     */
+    private static String runCase(Path directory, byte[] input, Charset charset, String[] options)
+            throws Exception {
+
+        // Build the command: java -Dfile.encoding=charset -cp classpath XSort options 64 2
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dfile.encoding=" + charset.name(), "-cp", System.getProperty("java.class.path"), "XSort"));
+        command.addAll(Arrays.asList(options));
+        command.addAll(List.of("64", "2"));
+
+        // Start the sort, with the input from a file and the errors to a file
+        Path in = directory.resolve("in.txt");
+        Path out = directory.resolve("out.txt");
+        Path err = directory.resolve("err.txt");
+        Files.write(in, input);
+        Process process = new ProcessBuilder(command).directory(directory.toFile())
+                .redirectInput(in.toFile()).redirectOutput(out.toFile()).redirectError(err.toFile()).start();
+
+        // Wait for the sort to finish
+        int status = process.waitFor();
+        String errors = Files.readString(err, StandardCharsets.UTF_8);
+
+        // Check if the sort failed or reported an error
+        if (status != 0) {
+            return "exit status " + status + " " + errors.trim();
+        }
+        if (errors.contains("Validation failed") || errors.contains("Checksum mismatch")) {
+            return errors.trim();
+        }
+
+        // Decode the input lines as the sort reads them
+        List<String> expected = new ArrayList<>(Arrays.asList(new String(input, charset).split("\n")));
+
+        // Sort them in the locale's order or in natural order
+        if (options.length > 0 && options[0].startsWith("--locale=")) {
+            expected.sort(CollationEncoder.forTag(options[0].substring("--locale=".length()))::compare);
+        } else {
+            Collections.sort(expected);
+        }
+
+        // Encode the sorted lines as the sort writes them
+        StringBuilder text = new StringBuilder();
+        for (String line : expected) {
+            text.append(line).append(System.lineSeparator());
+        }
+
+        // Check if the output differs
+        if (!Arrays.equals(Files.readAllBytes(out), text.toString().getBytes(charset))) {
+            return "output differs from the sorted input";
+        }
+
+        // Return null (passed)
+        return null;
+    }
+
+    /**
+     * Deletes a directory and everything below it.
+     */
+    private static void delete(Path directory) throws IOException {
+
+        // try with resources to walk the directory tree
+        try (Stream<Path> paths = Files.walk(directory)) {
+
+            // for each path, deepest first
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+
+                // Delete the path
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.util.*;
+
+/**
+ * Many target strings compiled into one Aho-Corasick automaton, so a line is
+ * searched for all of them in a single pass (-f patterns.txt).
+ *
+ * The automaton is the trie of the targets with every missing transition
+ * filled in from the state's failure link (the longest proper suffix of the
+ * state that is also a trie state), the same way KMPAutomaton fills a row from
+ * its restart state; for a single target the two are the same table. It is
+ * stored like KMPAutomaton, as one int array indexed by state and alphabet id.
+ *
+ * Each state also records the first target ending there (others with the same
+ * text are chained after it) and its output link: the nearest state on its
+ * failure chain where a target ends. Finding the targets in a line walks only
+ * those links, so the search costs the same however many targets there are.
+ */
+class AhoCorasick {
+
+    // Declare variables
+    private final String[] targets;
+    private final char[] classes;
+    private final int sigma;
+    private final int[] delta;
+    private final int[] firstTarget;
+    private final int[] nextTarget;
+    private final int[] outputLink;
+
+    /**
+     * Constructor for the AhoCorasick class (use compile).
+     */
+    private AhoCorasick(String[] targets, char[] classes, int sigma, int[] delta, int[] firstTarget,
+            int[] nextTarget, int[] outputLink) {
+
+        // Initialise variables
+        this.targets = targets;
+        this.classes = classes;
+        this.sigma = sigma;
+        this.delta = delta;
+        this.firstTarget = firstTarget;
+        this.nextTarget = nextTarget;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * Compiles the targets into an automaton.
+     *
+     * @param targets The target strings (not empty).
+     * @return The automaton.
+     * @throws IllegalArgumentException If a target is empty or the table would
+     *                                  be too large for an array.
+     */
+    static AhoCorasick compile(List<String> targets) {
+
+        // mark the characters that occur in the targets, and count them
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int unique = 0;
+        long totalLength = 0;
+        for (String target : targets) {
+
+            // check if the target is empty
+            if (target.isEmpty()) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Target string is empty.");
+            }
+
+            // loop through each character in target
+            for (int i = 0; i < target.length(); i++) {
+                if (!seen[target.charAt(i)]) {
+                    seen[target.charAt(i)] = true;
+                    unique++;
+                }
+            }
+            totalLength += target.length();
+        }
+
+        // Map each character up to the largest seen to its id (0: in no target)
+        int largest = Character.MAX_VALUE;
+        while (largest >= 0 && !seen[largest]) {
+            largest--;
+        }
+        char[] classes = new char[largest + 1];
+        int id = 0;
+        for (int c = 0; c <= largest; c++) {
+            if (seen[c]) {
+                classes[c] = (char) ++id;
+            }
+        }
+
+        // Get the number of ids (including 0), and the most states the trie can have
+        int sigma = unique + 1;
+        long maxStates = totalLength + 1;
+
+        // Check if the table would be too large for an array
+        if (maxStates * sigma > Integer.MAX_VALUE - 8) {
+
+            // Throw an exception
+            throw new IllegalArgumentException("Targets are too long for a dense automaton: " + totalLength
+                    + " characters, " + unique + " distinct.");
+        }
+
+        // initialise the transition table and the targets ending at each state
+        int[] delta = new int[(int) maxStates * sigma];
+        int[] firstTarget = new int[(int) maxStates];
+        int[] nextTarget = new int[targets.size()];
+        Arrays.fill(firstTarget, -1);
+
+        // initialise the number of states (state 0 is the root)
+        int states = 1;
+
+        // loop through each target, adding its path to the trie
+        for (int t = 0; t < targets.size(); t++) {
+
+            // get target
+            String target = targets.get(t);
+
+            // follow the target from the root, adding missing states
+            int state = 0;
+            for (int i = 0; i < target.length(); i++) {
+                int next = delta[state * sigma + classes[target.charAt(i)]];
+                if (next == 0) {
+                    next = states++;
+                    delta[state * sigma + classes[target.charAt(i)]] = next;
+                }
+                state = next;
+            }
+
+            // chain the target onto the targets ending at the state
+            nextTarget[t] = firstTarget[state];
+            firstTarget[state] = t;
+        }
+
+        // initialise the failure and output links
+        int[] fail = new int[states];
+        int[] outputLink = new int[states];
+        outputLink[0] = -1;
+
+        // initialise a queue of states in breadth-first order (shallower states first)
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+
+        // while there are states to complete
+        while (head < tail) {
+
+            // get the next state (its failure state's row is already complete)
+            int state = queue[head++];
+
+            // loop through each alphabet id
+            for (int c = 0; c < sigma; c++) {
+
+                // get the trie child on the id (0 if none)
+                int child = delta[state * sigma + c];
+
+                // check if there is no child
+                if (child == 0) {
+
+                    // take the transition of the failure state (the root stays at the root)
+                    delta[state * sigma + c] = state == 0 ? 0 : delta[fail[state] * sigma + c];
+
+                    // else the child is a new state
+                } else {
+
+                    // the child fails to where the failure state goes on the same id
+                    fail[child] = state == 0 ? 0 : delta[fail[state] * sigma + c];
+
+                    // link the child to the nearest state on its failure chain where a target ends
+                    outputLink[child] = firstTarget[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+
+                    // add the child to the queue
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        // Return the automaton, trimmed to the states used
+        return new AhoCorasick(targets.toArray(new String[0]), classes, sigma,
+                Arrays.copyOf(delta, states * sigma), Arrays.copyOf(firstTarget, states), nextTarget, outputLink);
+    }
+
+    /**
+     * Get the number of targets.
+     *
+     * @return The number of targets.
+     */
+    int size() {
+        return targets.length;
+    }
+
+    /**
+     * Get a target.
+     *
+     * @param index The 0-based index of the target.
+     * @return The target string.
+     */
+    String getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Finds which targets occur in a text.
+     *
+     * @param text The text to search.
+     * @return The 0-based indices of the targets found, or null if none were.
+     */
+    BitSet findTargets(String text) {
+
+        // initialise the set of targets found (created on the first hit)
+        BitSet found = null;
+
+        // Copy the table into locals for the loop
+        int[] delta = this.delta;
+        char[] classes = this.classes;
+        int sigma = this.sigma;
+
+        // initialise state
+        int state = 0;
+
+        // loop through each character in the text
+        for (int i = 0; i < text.length(); i++) {
+
+            // get the character's id
+            char c = text.charAt(i);
+            int id = c < classes.length ? classes[c] : 0;
+
+            // move to the next state
+            state = delta[state * sigma + id];
+
+            // loop through the states on the failure chain where a target ends
+            for (int s = firstTarget[state] >= 0 ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+
+                // create the set on the first hit
+                if (found == null)
+                    found = new BitSet(targets.length);
+
+                // add each target ending at the state
+                for (int t = firstTarget[s]; t >= 0; t = nextTarget[t]) {
+                    found.set(t);
+                }
+            }
+        }
+
+        // return the targets found
+        return found;
+    }
+}
@@ -0,0 +1,60 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the next occurrence of one byte in a buffer, many bytes at a time.
+ * Used by CandidateFilter to skip over text that can't hold a match.
+ *
+ * Two implementations: VectorByteScanner (in vector/) compares a whole SIMD
+ * register of bytes per step with the incubating Vector API, and
+ * SwarByteScanner compares the 8 bytes of a long per step with plain
+ * arithmetic. The vector one is used when it has been compiled and the JVM is
+ * run with --add-modules jdk.incubator.vector, on JDK 17 or 18 (see
+ * VectorByteScanner).
+ */
+interface ByteScanner {
+
+    /**
+     * Finds the first index in [from, to) holding a byte.
+     *
+     * @param buffer The buffer.
+     * @param b      The byte to find.
+     * @param from   The index to start at.
+     * @param to     The index to stop before.
+     * @return The index, or -1 if the byte is not there.
+     */
+    int indexOf(ByteBuffer buffer, byte b, int from, int to);
+
+    /**
+     * Creates the fastest scanner available. The vector scanner is tried on a
+     * small buffer first, as a JDK whose incubator API lacks a method it calls
+     * only fails when the method is first run.
+     *
+     * @return The vector scanner if it can be loaded and run, else the SWAR scanner.
+     */
+    static ByteScanner create() {
+
+        // try-catch block
+        try {
+
+            // load the vector scanner (compiled separately, with the incubator module)
+            ByteScanner scanner = (ByteScanner) Class.forName("VectorByteScanner").getDeclaredConstructor()
+                    .newInstance();
+
+            // check that it runs on this JDK
+            scanner.indexOf(ByteBuffer.allocate(256), (byte) 1, 0, 256);
+
+            // return the vector scanner
+            return scanner;
+
+            // catch a missing class, module or method
+        } catch (ReflectiveOperationException | LinkageError e) {
+
+            // fall back to scanning a long at a time
+            return new SwarByteScanner();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.nio.ByteBuffer;
+
+/**
+ * Finds matches of a target in raw bytes by checking only candidate
+ * positions. The rarest byte of the target (counted in a sample of the text)
+ * is found with a ByteScanner, many bytes at a time, and the automaton checks
+ * only the target-length window around each occurrence of that byte. On most
+ * text the rare byte is seldom seen, so the automaton reads a small fraction
+ * of the bytes.
+ */
+class CandidateFilter {
+
+    // Number of bytes sampled to count byte frequencies
+    private static final int SAMPLE_SIZE = 1 << 16;
+
+    // Declare variables
+    private final KMPAutomaton automaton;
+    private final ByteScanner scanner;
+    private final byte rare;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Constructor for the CandidateFilter class.
+     *
+     * @param automaton The automaton, compiled from the target's bytes as
+     *                  ISO-8859-1 chars.
+     * @param target    The target's bytes (not empty).
+     * @param sample    Text to count byte frequencies in.
+     */
+    CandidateFilter(KMPAutomaton automaton, byte[] target, ByteBuffer sample) {
+
+        // count the bytes at the start of the sample
+        int[] counts = new int[256];
+        for (int i = 0; i < Math.min(sample.limit(), SAMPLE_SIZE); i++) {
+            counts[sample.get(i) & 0xFF]++;
+        }
+
+        // find the target byte seen least often (the first of equals)
+        int offset = 0;
+        for (int i = 1; i < target.length; i++) {
+            if (counts[target[i] & 0xFF] < counts[target[offset] & 0xFF]) {
+                offset = i;
+            }
+        }
+
+        // Initialise variables
+        this.automaton = automaton;
+        this.scanner = ByteScanner.create();
+        this.rare = target[offset];
+        this.offset = offset;
+        this.length = target.length;
+    }
+
+    /**
+     * Finds the first match in bytes [from, to) of a buffer, like
+     * KMPAutomaton.find.
+     *
+     * @param buffer The buffer.
+     * @param from   The index of the first byte.
+     * @param to     The index after the last byte.
+     * @return The index of the byte that completes the first match, or -1 if
+     *         there is no match.
+     */
+    int find(ByteBuffer buffer, int from, int to) {
+
+        // get the range the rare byte can be in (a match must fit on both sides)
+        int position = from + offset;
+        int end = to - (length - 1 - offset);
+
+        // while there are candidates
+        while (position < end) {
+
+            // find the next occurrence of the rare byte
+            int found = scanner.indexOf(buffer, rare, position, end);
+
+            // check if there are no more candidates
+            if (found < 0) {
+
+                // break the loop
+                break;
+            }
+
+            // get the start of the candidate match
+            int start = found - offset;
+
+            // check if the automaton accepts the window
+            if (automaton.find(buffer, start, start + length) >= 0) {
+
+                // return the index of the last byte of the match
+                return start + length - 1;
+            }
+
+            // move past the candidate
+            position = found + 1;
+        }
+
+        // return -1 (no match)
+        return -1;
+    }
+}
@@ -0,0 +1,87 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+/**
+ * Boyer-Moore-Horspool search (--engine=bmh). The target is compared with the
+ * text from its last character, and on a mismatch the target moves along by
+ * the bad-character shift of the text character under its last position: the
+ * distance from that character's last occurrence in the target (excluding the
+ * last position) to the end, or the whole target length if it doesn't occur.
+ */
+class HorspoolSearch implements SearchEngine {
+
+    // Declare variables
+    private final String target;
+    private final int[] shifts;
+
+    /**
+     * Constructor for the HorspoolSearch class.
+     *
+     * @param target The target string.
+     */
+    HorspoolSearch(String target) {
+
+        // get target length
+        int m = target.length();
+
+        // find the largest character in the target
+        int largest = 0;
+        for (int i = 0; i < m; i++) {
+            largest = Math.max(largest, target.charAt(i));
+        }
+
+        // initialise the shifts (characters past the table shift by m)
+        int[] shifts = new int[largest + 1];
+        java.util.Arrays.fill(shifts, m);
+
+        // loop through each character but the last, so the last occurrence wins
+        for (int i = 0; i < m - 1; i++) {
+
+            // set the distance from the character to the end of the target
+            shifts[target.charAt(i)] = m - 1 - i;
+        }
+
+        // Initialise variables
+        this.target = target;
+        this.shifts = shifts;
+    }
+
+    @Override
+    public int indexOf(String text, int from) {
+
+        // get text and target lengths
+        int n = text.length();
+        int m = target.length();
+
+        // check if the target is empty (it occurs at the start)
+        if (m == 0) {
+            return from <= n ? from : -1;
+        }
+
+        // get the last character of the target
+        char last = target.charAt(m - 1);
+
+        // initialise the text index of the target's start
+        int i = from;
+
+        // while the target fits in the rest of the text
+        while (i <= n - m) {
+
+            // get the text character under the target's last character
+            char c = text.charAt(i + m - 1);
+
+            // check if the last characters match, then the rest of the target
+            if (c == last && text.regionMatches(i, target, 0, m - 1)) {
+
+                // return the index of the occurrence
+                return i;
+            }
+
+            // move the target along by the character's shift
+            i += c < shifts.length ? shifts[c] : m;
+        }
+
+        // return -1 (not found)
+        return -1;
+    }
+}
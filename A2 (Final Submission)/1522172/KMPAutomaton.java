@@ -0,0 +1,266 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.nio.ByteBuffer;
+
+/**
+ * A target string compiled into a KMP automaton stored as a dense transition
+ * table.
+ *
+ * Each character of the target is given an alphabet id (1 to sigma - 1, in
+ * character order), and every other character shares id 0 (the '*' row of the
+ * skip table). The table holds the next state for each (state, id) pair in one
+ * int array, so a search step is two array lookups with no boxing or hashing.
+ * States run from 0 to m, where m (the target length) means a match.
+ *
+ * The table is built row by row in O(m * sigma) time using the restart state:
+ * the state the automaton would be in on the target with its first character
+ * removed. Row q is a copy of the restart state's row, except that the target's
+ * next character moves on to q + 1.
+ *
+ * It is also the kmp search engine (--engine=kmp).
+ */
+class KMPAutomaton implements SearchEngine {
+
+    // Declare variables
+    private final String target;
+    private final char[] alphabet;
+    private final char[] classes;
+    private final int sigma;
+    private final int[] delta;
+
+    /**
+     * Constructor for the KMPAutomaton class (use compile).
+     *
+     * @param target   The target string.
+     * @param alphabet The unique characters of the target, in order.
+     * @param classes  The alphabet id of each character up to the largest in
+     *                 the target.
+     * @param delta    The transition table, (m + 1) rows of sigma states.
+     */
+    private KMPAutomaton(String target, char[] alphabet, char[] classes, int[] delta) {
+
+        // Initialise variables
+        this.target = target;
+        this.alphabet = alphabet;
+        this.classes = classes;
+        this.sigma = alphabet.length + 1;
+        this.delta = delta;
+    }
+
+    /**
+     * Compiles a target string into an automaton.
+     *
+     * @param target The target string.
+     * @return The automaton.
+     */
+    static KMPAutomaton compile(String target) {
+
+        // get target length
+        int m = target.length();
+
+        // mark the characters that occur in target
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int unique = 0;
+        for (int i = 0; i < m; i++) {
+            if (!seen[target.charAt(i)]) {
+                seen[target.charAt(i)] = true;
+                unique++;
+            }
+        }
+
+        // Copy the unique characters into the alphabet in order (id = index + 1)
+        char[] alphabet = new char[unique];
+        int id = 0;
+        for (int c = 0; c < seen.length; c++) {
+            if (seen[c]) {
+                alphabet[id++] = (char) c;
+            }
+        }
+
+        // Map each character up to the largest in the alphabet to its id (0: not in the target)
+        char[] classes = new char[alphabet.length == 0 ? 0 : alphabet[alphabet.length - 1] + 1];
+        for (int i = 0; i < alphabet.length; i++) {
+            classes[alphabet[i]] = (char) (i + 1);
+        }
+
+        // Get the number of ids (including 0)
+        int sigma = alphabet.length + 1;
+
+        // Check if the table would be too large for an array
+        if ((long) (m + 1) * sigma > Integer.MAX_VALUE - 8) {
+
+            // Throw an exception
+            throw new IllegalArgumentException("Target is too long for a dense automaton: " + m + " characters, "
+                    + alphabet.length + " distinct.");
+        }
+
+        // initialise the transition table, one row per state
+        int[] delta = new int[(m + 1) * sigma];
+
+        // Check if the target is not empty
+        if (m > 0) {
+
+            // from state 0, only the first character of the target moves on
+            delta[classes[target.charAt(0)]] = 1;
+
+            // initialise the restart state
+            int restart = 0;
+
+            // loop through each later state, including the match state
+            for (int q = 1; q <= m; q++) {
+
+                // start from the restart state's transitions (the fallback on a mismatch)
+                System.arraycopy(delta, restart * sigma, delta, q * sigma, sigma);
+
+                // check if there is a next character in the target
+                if (q < m) {
+
+                    // get the id of the next character
+                    int next = classes[target.charAt(q)];
+
+                    // the next character moves on to state q + 1
+                    delta[q * sigma + next] = q + 1;
+
+                    // move the restart state on by the same character
+                    restart = delta[restart * sigma + next];
+                }
+            }
+        }
+
+        // Return the automaton
+        return new KMPAutomaton(target, alphabet, classes, delta);
+    }
+
+    /**
+     * Get the target string.
+     *
+     * @return The target.
+     */
+    String getTarget() {
+        return target;
+    }
+
+    /**
+     * Get the unique characters of the target, in order.
+     *
+     * @return A copy of the alphabet.
+     */
+    char[] getAlphabet() {
+        return alphabet.clone();
+    }
+
+    /**
+     * Returns the alphabet id of a character.
+     *
+     * @param c The character.
+     * @return The id, or 0 if the character is not in the target.
+     */
+    int classOf(char c) {
+
+        // Look up the id (chars past the table are not in the target)
+        return c < classes.length ? classes[c] : 0;
+    }
+
+    /**
+     * Returns the state after reading a character.
+     *
+     * @param state The current state (0 to m).
+     * @param c     The character read.
+     * @return The next state.
+     */
+    int next(int state, char c) {
+        return delta[state * sigma + classOf(c)];
+    }
+
+    /**
+     * Returns the KMP skip for a character read at a position of the target:
+     * how far the target moves along the text when that character is read in
+     * that state, (j + 1) - next(j, c).
+     *
+     * @param j The position in the target (state, 0 to m - 1).
+     * @param c The character read.
+     * @return The skip.
+     */
+    int skip(int j, char c) {
+        return (j + 1) - next(j, c);
+    }
+
+    @Override
+    public int indexOf(String text, int from) {
+
+        // get target length
+        int m = target.length();
+
+        // check if the target is empty (it occurs at the start)
+        if (m == 0) {
+            return from <= text.length() ? from : -1;
+        }
+
+        // initialise state
+        int state = 0;
+
+        // loop through each character from the start position
+        for (int i = from; i < text.length(); i++) {
+
+            // move to the next state
+            state = next(state, text.charAt(i));
+
+            // check if full target is found
+            if (state == m) {
+
+                // return the index of the first character of the match
+                return i - m + 1;
+            }
+        }
+
+        // return -1 (not found)
+        return -1;
+    }
+
+    /**
+     * Runs the automaton from state 0 over bytes of a buffer, each byte read as
+     * the char 0 to 255 (compile the target's bytes as ISO-8859-1 chars).
+     *
+     * @param buffer The buffer.
+     * @param from   The index of the first byte.
+     * @param to     The index after the last byte.
+     * @return The index of the byte that completes the first match, or -1 if
+     *         there is no match.
+     */
+    int find(ByteBuffer buffer, int from, int to) {
+
+        // get target length
+        int m = target.length();
+
+        // Copy the table into locals for the loop
+        int[] delta = this.delta;
+        char[] classes = this.classes;
+        int sigma = this.sigma;
+
+        // initialise state
+        int state = 0;
+
+        // loop through each byte
+        for (int i = from; i < to; i++) {
+
+            // get the byte's id
+            int b = buffer.get(i) & 0xFF;
+            int id = b < classes.length ? classes[b] : 0;
+
+            // move to the next state
+            state = delta[state * sigma + id];
+
+            // check if full target is found
+            if (state == m) {
+
+                // return the index of the last byte of the match
+                return i;
+            }
+        }
+
+        // return -1 (no match)
+        return -1;
+    }
+}
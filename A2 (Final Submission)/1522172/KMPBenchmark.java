@@ -0,0 +1,146 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.util.*;
+
+/**
+ * Benchmarks building and running the KMP automaton for target lengths from 10
+ * to 10^6 (by powers of ten), over a DNA alphabet (ACGT) and a text alphabet
+ * (lowercase letters and space).
+ *
+ * For each length it prints the mean time to compile the target (after warmup
+ * runs), the size of the transition table, and the search throughput over a
+ * random text of the same alphabet.
+ *
+ * Usage: java KMPBenchmark [maxLength] [iterations]
+ * (defaults: 1000000 and 5)
+ */
+public class KMPBenchmark {
+
+    // Alphabets of the generated targets and texts
+    private static final String[] ALPHABETS = { "ACGT", "abcdefghijklmnopqrstuvwxyz " };
+
+    // Length of the searched text
+    private static final int TEXT_LENGTH = 1 << 24;
+
+    // Result sink, so the JIT can't drop the measured work
+    private static volatile long sink;
+
+    /**
+     * Main method to run the benchmark.
+     *
+     * @param args Command line arguments: optional maximum target length and
+     *             number of measured iterations.
+     */
+    public static void main(String[] args) {
+
+        // initialise defaults
+        int maxLength = 1000000;
+        int iterations = 5;
+
+        // try-catch block
+        try {
+
+            // get the optional arguments
+            if (args.length > 0)
+                maxLength = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                iterations = Integer.parseInt(args[1]);
+
+            // catch invalid numbers
+        } catch (NumberFormatException e) {
+
+            // print usage message
+            System.out.println("Usage: java KMPBenchmark [maxLength] [iterations]");
+            return;
+        }
+
+        // create a random number generator with a fixed seed
+        Random random = new Random(301);
+
+        // print the table header
+        System.out.printf("%-10s %10s %14s %14s %14s%n", "alphabet", "length", "compile ms", "table entries",
+                "search MB/s");
+
+        // loop through each alphabet
+        for (String alphabet : ALPHABETS) {
+
+            // generate the text to search
+            String text = randomString(random, alphabet, TEXT_LENGTH);
+
+            // loop through each target length
+            for (int length = 10; length <= maxLength; length *= 10) {
+
+                // generate the target
+                String target = randomString(random, alphabet, length);
+
+                // warm up the compiler on this target
+                for (int i = 0; i < 3; i++) {
+                    sink += KMPAutomaton.compile(target).next(0, target.charAt(0));
+                }
+
+                // time the measured compiles
+                long start = System.nanoTime();
+                KMPAutomaton automaton = null;
+                for (int i = 0; i < iterations; i++) {
+                    automaton = KMPAutomaton.compile(target);
+                }
+                double compileMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+                // time a search of the text
+                start = System.nanoTime();
+                sink += search(automaton, text, length);
+                double searchSeconds = (System.nanoTime() - start) / 1e9;
+
+                // print the results
+                System.out.printf("%-10s %10d %14.3f %14d %14.1f%n", alphabet.length() == 4 ? "dna" : "text",
+                        length, compileMillis, (long) (length + 1) * (automaton.getAlphabet().length + 1),
+                        text.length() / 1e6 / searchSeconds);
+            }
+        }
+    }
+
+    /**
+     * Counts the occurrences of the target in the text.
+     */
+    private static long search(KMPAutomaton automaton, String text, int m) {
+
+        // initialise state and count
+        int state = 0;
+        long count = 0;
+
+        // loop through each character in the text
+        for (int i = 0; i < text.length(); i++) {
+
+            // move to the next state
+            state = automaton.next(state, text.charAt(i));
+
+            // count a match
+            if (state == m)
+                count++;
+        }
+
+        // return the count
+        return count;
+    }
+
+    /**
+     * Generates a random string over an alphabet.
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+
+        // create a char array of the length
+        char[] chars = new char[length];
+
+        // loop through each char
+        for (int i = 0; i < length; i++) {
+
+            // pick a random character from the alphabet
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+
+        // return the string
+        return new String(chars);
+    }
+}
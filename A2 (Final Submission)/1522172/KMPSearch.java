@@ -4,6 +4,8 @@
 // Import statements
 import java.util.*;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.*;
 
 /**
  * Implements the KMP string search algorithm.
@@ -11,9 +13,38 @@ import java.io.*;
  * Modes of operation:
  * 1. "target": Prints the KMP skip table.
  * 2. "target" filename.txt: Searches the file, printing lines with the target
- * and the 1-based index of the first occurrence.
+ * and the 1-based index of the first occurrence. A filename of "-" reads
+ * standard input.
+ * 3. -f patterns.txt filename.txt: Searches the file for every target in
+ * patterns.txt (one per line) in a single pass, printing lines with any of them
+ * as the comma-separated 1-based numbers of the targets found and the line
+ * (see AhoCorasick).
+ * 4. "target" file1.txt file2.txt ...: Searches several files, directories
+ * (recursively) and glob patterns such as "logs/*.log", printing each line
+ * after its filename and a colon, file by file in a stable order (see
+ * MultiFileSearch). These are searched line by line.
  *
- * The skip table is stored (Map<Character, int[]>) and used for searching.
+ * Options (before the target; "--" ends the options):
+ * --mmap: memory-maps the file and searches its raw bytes, decoding only the
+ * lines that match (same output, see MappedFileSearch).
+ * --stream: matches the input as a byte stream, printing every occurrence as
+ * line:offset as soon as it is read (see StreamMatcher).
+ * --across-lines: with --stream, lets matches span line breaks.
+ * --threads=N: searches the file's raw bytes (like --mmap) in chunks on N
+ * threads, printing the lines in file order (see ParallelFileSearch).
+ * --engine=kmp|bmh|twoway|auto: the algorithm of the line-by-line search
+ * (default kmp; same output, see SearchEngine).
+ * -c: prints only the number of lines with the target.
+ * -l: prints only the filename, if a line has the target.
+ * -q: prints nothing, exiting with status 0 if a line has the target and 1 if
+ * not (2 on an error).
+ * -l and -q stop reading at the first line with the target. The three modes
+ * use the line-by-line search, so they can't be combined with --mmap,
+ * --threads, --stream or -f.
+ * --jobs=N: with many files, the most files read at once (default 16).
+ *
+ * The skip table is compiled into a KMPAutomaton (a dense transition table)
+ * and used for searching.
  */
 public class KMPSearch {
 
@@ -21,50 +52,372 @@ public class KMPSearch {
      * Main method to run the KMP search algorithm.
      * It can either print the skip table or search a file for the target string.
      *
-     * @param args Command line arguments: target string and optional filename.
+     * @param args Command line arguments: options, target string and optional
+     *             filename.
      */
     public static void main(String[] args) {
 
-        // Create map to hold the skip table
-        Map<Character, int[]> skipTable = new HashMap<>();
+        // Declare the compiled skip table
+        KMPAutomaton skipTable;
 
-        // initialise variables for target and filename
-        String target = "";
-        String filename = "";
+        // Declare the parsed command line
+        Options options;
 
-        // Check if only target is provided
-        if (args.length == 1) {
+        // try-catch block
+        try {
+
+            // parse the options, target and filename
+            options = Options.parse(args);
+
+            // catch invalid command lines
+        } catch (IllegalArgumentException e) {
+
+            // If no valid arguments are provided, print usage message
+            System.out.println("Usage: java KMPsearch [--mmap | --threads=N | --stream [--across-lines] | -c | -l | -q]"
+                    + " [--engine=kmp|bmh|twoway|auto] [--jobs=N]");
+            System.out.println("       [--] \"target\" [filename.txt | - | dir | glob]...");
+            System.out.println("       java KMPsearch -f patterns.txt filename.txt");
+            return;
+        }
+
+        // Check if searching for the targets in a pattern file
+        if (options.patternFile != null) {
+
+            // call method to search file for all the targets at once
+            searchFileWithTargets(options.filename, options.patternFile);
+
+            // return from main
+            return;
+        }
+
+        // get target and filename
+        String target = options.target;
+        String filename = options.filename;
 
-            // get target from args
-            target = args[0];
+        // create skip table for target
+        skipTable = generateSkipTable(target);
 
-            // create skip table for target
-            skipTable = generateSkipTable(target);
+        // Check if only target is provided
+        if (filename == null) {
 
             // call method to print skip table
             printSkipTable(target, skipTable);
             return;
         }
 
-        // Check if target and filename are provided
-        if (args.length == 2) {
+        // create the search engine (the skip table is the kmp engine)
+        SearchEngine engine = options.engine.equals("kmp") ? skipTable : SearchEngine.create(options.engine, target);
+
+        // Check if searching more than one file (several names, a directory or a pattern)
+        if (MultiFileSearch.isMultiple(options.filenames)) {
+
+            // call method to search the files concurrently
+            searchFiles(options, skipTable, engine);
+
+            // return from main
+            return;
+        }
+
+        // Check if the input should be matched as a stream
+        if (options.stream) {
 
-            // get target and filename from args
-            target = args[0];
-            filename = args[1];
+            // call method to search the stream
+            searchStream(filename, target, options.acrossLines);
 
-            // create skip table for target
-            skipTable = generateSkipTable(target);
+            // return from main
+            return;
+        }
 
-            // call method to search file using the skip table
-            searchFileWithSkipTable(filename, target, skipTable);
+        // Check if the file should be searched in raw bytes (standard input can't be mapped)
+        if ((options.mmap || options.threads > 1) && !filename.equals("-") && !target.isEmpty()
+                && MappedFileSearch.supports(Charset.defaultCharset(), target)) {
+
+            // call method to search the memory-mapped file
+            searchMappedFile(filename, target, options.threads);
 
             // return from main
             return;
         }
 
-        // If no valid arguments are provided, print usage message
-        System.out.println("Usage: java KMPsearch \"target\" [filename.txt]");
+        // call method to search file using the skip table (or the engine)
+        long count = searchFile(filename, target, skipTable, engine, options.mode, System.out, "");
+
+        // check if only the exit status is wanted
+        if (options.mode == Mode.QUIET) {
+
+            // exit with the status (0: found, 1: not found, 2: error)
+            System.exit(count > 0 ? 0 : count == 0 ? 1 : 2);
+        }
+    }
+
+    /**
+     * Searches several files, directories and patterns concurrently, printing
+     * each file's output in order with its filename before each line.
+     *
+     * @param options   The command line (target, filenames, mode and jobs).
+     * @param skipTable The skip table generated for the target string.
+     * @param engine    The search engine (the skip table for KMP).
+     */
+    private static void searchFiles(Options options, KMPAutomaton skipTable, SearchEngine engine) {
+
+        // Declare list of files
+        List<String> files;
+
+        // try-catch block
+        try {
+
+            // expand the directories and patterns into files
+            files = MultiFileSearch.expand(options.filenames);
+
+            // catch any IO exceptions
+        } catch (IOException | UncheckedIOException e) {
+
+            // print error message
+            System.out.println("Error reading file: " + e.getMessage());
+            return;
+        }
+
+        // create the search, with each file searched like a single file (prefixed by its name)
+        MultiFileSearch search = new MultiFileSearch(
+                (filename, out) -> searchFile(filename, options.target, skipTable, engine, options.mode, out,
+                        filename + ":"),
+                options.jobs, options.mode == Mode.QUIET);
+
+        // search the files
+        long count = search.search(files, System.out);
+
+        // check if only the exit status is wanted
+        if (options.mode == Mode.QUIET) {
+
+            // exit with the status (0: found, 1: not found, 2: error)
+            System.exit(count > 0 ? 0 : search.hadErrors() ? 2 : 1);
+        }
+    }
+
+    /**
+     * Searches a file line by line, printing what the mode asks for.
+     *
+     * @param filename  The name of the file to search.
+     * @param target    The target string to search for.
+     * @param skipTable The skip table generated for the target string.
+     * @param engine    The search engine (the skip table for KMP).
+     * @param mode      What to print.
+     * @param out       The stream to print to.
+     * @param prefix    The text to print before each line or count.
+     * @return The number of lines with the target, or -1 if the file couldn't
+     *         be read.
+     */
+    private static long searchFile(String filename, String target, KMPAutomaton skipTable, SearchEngine engine,
+            Mode mode, PrintStream out, String prefix) {
+
+        // call method to search file using the skip table (or the engine)
+        long count = searchFileWithSkipTable(filename, target, skipTable, engine, mode, out, prefix);
+
+        // check the mode
+        switch (mode) {
+
+            // print the number of lines with the target
+            case COUNT:
+                if (count >= 0)
+                    out.println(prefix + count);
+                break;
+
+            // print the filename if a line has the target
+            case LIST:
+                if (count > 0)
+                    out.println(filename);
+                break;
+
+            // the lines are already printed (or only the exit status is wanted)
+            default:
+                break;
+        }
+
+        // return the count
+        return count;
+    }
+
+    /**
+     * What the line-by-line search prints.
+     */
+    private enum Mode {
+
+        // each line with the target, after the index of its first occurrence
+        LINES,
+
+        // the number of lines with the target (-c)
+        COUNT,
+
+        // the filename if a line has the target (-l)
+        LIST,
+
+        // nothing, only the exit status (-q)
+        QUIET
+    }
+
+    /**
+     * Command line of the program: options, target and filename.
+     */
+    private static class Options {
+
+        // Declare variables
+        boolean mmap;
+        boolean stream;
+        boolean acrossLines;
+        int threads = 1;
+        Mode mode = Mode.LINES;
+        int jobs = 16;
+        String engine = "kmp";
+        String patternFile;
+        String target;
+        String filename;
+        List<String> filenames = new ArrayList<>();
+
+        /**
+         * Parses the command line. Arguments starting with '-' are options only
+         * if they name one (so a target such as "-x" still works), and "--"
+         * ends the options.
+         *
+         * @param args The command line arguments.
+         * @return The parsed options.
+         * @throws IllegalArgumentException If there isn't a target and at most
+         *                                  one filename (or, with -f, exactly
+         *                                  one filename).
+         */
+        static Options parse(String[] args) {
+
+            // initialise options and list of positional arguments
+            Options options = new Options();
+            List<String> positional = new ArrayList<>();
+            boolean parsingOptions = true;
+
+            // loop through each argument
+            for (int i = 0; i < args.length; i++) {
+
+                // get the argument
+                String arg = args[i];
+
+                // check for the end of the options
+                if (parsingOptions && arg.equals("--")) {
+                    parsingOptions = false;
+
+                    // check for the memory-mapped search option
+                } else if (parsingOptions && arg.equals("--mmap")) {
+                    options.mmap = true;
+
+                    // check for the streaming search option
+                } else if (parsingOptions && arg.equals("--stream")) {
+                    options.stream = true;
+
+                    // check for the across lines option (implies streaming)
+                } else if (parsingOptions && arg.equals("--across-lines")) {
+                    options.stream = true;
+                    options.acrossLines = true;
+
+                    // check for the count, list and quiet modes
+                } else if (parsingOptions && arg.equals("-c")) {
+                    options.mode = Mode.COUNT;
+                } else if (parsingOptions && arg.equals("-l")) {
+                    options.mode = Mode.LIST;
+                } else if (parsingOptions && arg.equals("-q")) {
+                    options.mode = Mode.QUIET;
+
+                    // check for the threads option
+                } else if (parsingOptions && arg.startsWith("--threads=")) {
+
+                    // get the number of threads (at least 1)
+                    options.threads = Integer.parseInt(arg.substring("--threads=".length()));
+                    if (options.threads < 1) {
+
+                        // Throw an exception
+                        throw new IllegalArgumentException("Expected at least 1 thread");
+                    }
+
+                    // check for the jobs option (at least 1)
+                } else if (parsingOptions && arg.startsWith("--jobs=")) {
+                    options.jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+                    if (options.jobs < 1) {
+
+                        // Throw an exception
+                        throw new IllegalArgumentException("Expected at least 1 job");
+                    }
+
+                    // check for the search engine option
+                } else if (parsingOptions && arg.startsWith("--engine=")) {
+                    options.engine = arg.substring("--engine=".length());
+
+                    // check that the engine is known
+                    if (!Arrays.asList("kmp", "bmh", "twoway", "auto").contains(options.engine)) {
+
+                        // Throw an exception
+                        throw new IllegalArgumentException("Unknown engine " + options.engine);
+                    }
+
+                    // check for the pattern file option (takes the next argument)
+                } else if (parsingOptions && arg.equals("-f") && i + 1 < args.length) {
+                    options.patternFile = args[++i];
+
+                    // else the argument is the target or filename
+                } else {
+                    parsingOptions = false;
+                    positional.add(arg);
+                }
+            }
+
+            // check that a mode other than printing lines uses the line-by-line search
+            if (options.mode != Mode.LINES
+                    && (options.mmap || options.threads > 1 || options.stream || options.patternFile != null)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("-c, -l and -q only work with the line-by-line search");
+            }
+
+            // check if the targets come from a pattern file
+            if (options.patternFile != null) {
+
+                // check for exactly one filename
+                if (positional.size() != 1) {
+
+                    // Throw an exception
+                    throw new IllegalArgumentException("Expected -f patterns.txt filename.txt");
+                }
+
+                // get filename
+                options.filename = positional.get(0);
+
+                // return the options
+                return options;
+            }
+
+            // check for a target
+            if (positional.isEmpty()) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Expected \"target\" [filename.txt]...");
+            }
+
+            // check that several files are only searched line by line
+            if (positional.size() > 2 && (options.mmap || options.threads > 1 || options.stream)) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("--mmap, --threads and --stream search one file");
+            }
+
+            // get target and filenames (the first, if any, is the single filename)
+            options.target = positional.get(0);
+            options.filenames = positional.subList(1, positional.size());
+            options.filename = options.filenames.isEmpty() ? null : options.filenames.get(0);
+
+            // check that a mode other than printing lines has a file to search
+            if (options.mode != Mode.LINES && options.filename == null) {
+
+                // Throw an exception
+                throw new IllegalArgumentException("Expected a filename");
+            }
+
+            // return the options
+            return options;
+        }
     }
 
     /**
@@ -73,7 +426,7 @@ public class KMPSearch {
      * @param target    target string for which the skip table is generated.
      * @param skipTable the skip table generated for the target string.
      */
-    private static void printSkipTable(String target, Map<Character, int[]> skipTable) {
+    private static void printSkipTable(String target, KMPAutomaton skipTable) {
 
         // get target length
         int m = target.length();
@@ -95,20 +448,12 @@ public class KMPSearch {
         // print a new line
         System.out.println();
 
-        // get sorted list of keys from the skip table
-        List<Character> sortedKeys = new ArrayList<>(skipTable.keySet());
-
-        // sort the keys alphabetically (asc)
-        Collections.sort(sortedKeys);
+        // loop through each character of the target, in alphabetical order (asc)
+        for (char c : skipTable.getAlphabet()) {
 
-        // exclude '*' from alphabetical sort
-        sortedKeys.remove(Character.valueOf('*'));
-
-        // loop through each character in sorted keys
-        for (Character c : sortedKeys) {
-
-            // get the skips for the character
-            int[] skips = skipTable.get(c);
+            // exclude '*' (its row is printed last, as the default)
+            if (c == '*')
+                continue;
 
             // print the character, followed by a comma
             System.out.print(c + ",");
@@ -117,7 +462,7 @@ public class KMPSearch {
             for (int i = 0; i < m; i++) {
 
                 // print the skip value
-                System.out.print(skips[i]);
+                System.out.print(skipTable.skip(i, c));
 
                 // if not the last skip value
                 if (i < m - 1)
@@ -133,14 +478,11 @@ public class KMPSearch {
         // print asterisk, followed by a comma
         System.out.print("*,");
 
-        // get the default skip values for '*' from the skip table
-        int[] defaultSkips = skipTable.get('*');
-
         // loop through index in target
         for (int i = 0; i < m; i++) {
 
-            // print the default skip value
-            System.out.print(defaultSkips[i]);
+            // print the default skip value (a character not in the target restarts the match)
+            System.out.print(i + 1);
 
             // if not the last default skip value
             if (i < m - 1)
@@ -157,121 +499,147 @@ public class KMPSearch {
      * Generates the KMP skip table for the given target string.
      *
      * @param target The target string for which to generate the skip table.
-     * @return A map where each character in the target maps to an array of skip
-     *         values.
+     * @return The skip table compiled into a dense automaton.
      */
-    private static Map<Character, int[]> generateSkipTable(String target) {
+    private static KMPAutomaton generateSkipTable(String target) {
 
-        // Check if target is null or empty
-        if (target == null || target.isEmpty()) {
+        // Check if target is empty
+        if (target.isEmpty()) {
 
             // Print error message
             System.out.println("Target string is empty.");
-
-            // return an empty map
-            return new HashMap<>();
         }
 
-        // get target length
-        int m = target.length();
+        // compile the target into the automaton
+        return KMPAutomaton.compile(target);
+    }
 
-        // build prefix table for target
-        int[] prefix = buildKmpTable(target);
+    /**
+     * Searches file for the target string using the KMP algorithm with the skip
+     * table, or another search engine.
+     * 
+     * @param filename  The name of the file to search.
+     * @param target    The target string to search for.
+     * @param skipTable The skip table generated for the target string.
+     * @param engine    The search engine (the skip table for KMP).
+     * @param mode      What to print: each line with the target, or nothing
+     *                  (the caller prints the count, or the filename). In
+     *                  LIST and QUIET modes the search stops at the first
+     *                  line with the target.
+     * @param out       The stream to print to.
+     * @param prefix    The text to print before each line.
+     * @return The number of lines with the target (at most 1 in LIST and
+     *         QUIET modes), or -1 if the file couldn't be read.
+     */
+    private static long searchFileWithSkipTable(String filename, String target, KMPAutomaton skipTable,
+            SearchEngine engine, Mode mode, PrintStream out, String prefix) {
 
-        // initialise skip table
-        Map<Character, int[]> skipTable = new HashMap<>();
+        // initialise count of lines with the target
+        long count = 0;
 
-        // initalise set for unique characters
-        TreeSet<Character> uniqueChars = new TreeSet<>();
+        // try with resources to read the file (or standard input)
+        try (BufferedReader reader = new BufferedReader(
+                filename.equals("-") ? new InputStreamReader(System.in) : new FileReader(filename))) {
 
-        // loop through each character in target
-        for (char c : target.toCharArray()) {
+            // declare line variable
+            String line;
 
-            // add char to unique set
-            uniqueChars.add(c);
-        }
+            // while there are lines to read
+            while ((line = reader.readLine()) != null) {
 
-        // loop through each unique character
-        for (char c : uniqueChars) {
+                // KMP search (using skip table) for the first occurrence of the target in the
+                // line, or search with the engine (both give the 1-based index, 0 if not found)
+                int index = engine == skipTable ? kmpSearchWithSkipTable(line, target, skipTable)
+                        : engine.indexOf(line, 0) + 1;
 
-            // initalise skip arr for char
-            int[] skips = new int[m];
+                // if the target was not found in the line
+                if (index == 0) {
 
-            // loop through each index in target
-            for (int j = 0; j < m; j++) {
+                    // continue to the next line
+                    continue;
+                }
 
-                // calculate next state (using prefix table)
-                int next = nextState(target, j, c, prefix);
+                // count the line
+                count++;
 
-                // calculate skip value
-                int skip = (j + 1) - next;
+                // check if printing lines
+                if (mode == Mode.LINES) {
 
-                // store skip value in skips array
-                skips[j] = skip;
-            }
+                    // print the 1-based index of the first occurrence and the line
+                    out.println(prefix + index + " " + line);
 
-            // store skips for char in skip table
-            skipTable.put(c, skips);
-        }
+                    // else check if one line is all that's needed
+                } else if (mode != Mode.COUNT) {
 
-        // initialise default skip array
-        int[] defaultSkips = new int[m];
+                    // stop reading the file
+                    break;
+                }
+            }
 
-        // loop through each index in target
-        for (int i = 0; i < m; i++) {
+            // catch any IO exceptions
+        } catch (IOException e) {
 
-            // set default skip value
-            defaultSkips[i] = i + 1;
-        }
+            // print error message
+            out.println("Error reading file: " + e.getMessage());
 
-        // store default skips
-        skipTable.put('*', defaultSkips);
+            // return -1 (error)
+            return -1;
+        }
 
-        // return the skip table
-        return skipTable;
+        // return count of lines with the target
+        return count;
     }
 
     /**
-     * Computes the "next state" in the KMP automaton.
-     * Uses the prefix table to determine the next state based on the current state
-     * and the character being checked.
-     * 
-     * @param target The target string.
-     * @param q      The current state (index in the target string).
-     * @param c      The character to check.
-     * @param prefix The prefix table for the target string.
-     * @return The next state based on the current state and character.
+     * Searches file for all the targets in a pattern file at once, using an
+     * Aho-Corasick automaton. Each line with any of the targets is printed
+     * once, after the comma-separated 1-based numbers of the targets it holds.
+     *
+     * @param filename    The name of the file to search, or "-".
+     * @param patternFile The name of the file of targets, one per line (empty
+     *                    lines are skipped).
      */
-    private static int nextState(String target, int q, char c, int[] prefix) {
+    private static void searchFileWithTargets(String filename, String patternFile) {
 
-        // Check if the character matches the target at the current state
-        if (q < target.length() && c == target.charAt(q))
+        // initialise list of targets
+        List<String> targets = new ArrayList<>();
 
-            // return the next state (q + 1)
-            return q + 1;
+        // try with resources to read the pattern file
+        try (BufferedReader reader = new BufferedReader(new FileReader(patternFile))) {
 
-        // No match at start of pattern
-        if (q == 0)
+            // declare line variable
+            String line;
 
-            // stay at state 0
-            return 0;
+            // while there are targets to read
+            while ((line = reader.readLine()) != null) {
 
-        // recursive call to backtrack using the prefix table
-        return nextState(target, prefix[q - 1], c, prefix);
-    }
+                // add the target, skipping empty lines
+                if (!line.isEmpty())
+                    targets.add(line);
+            }
 
-    /**
-     * Searches file for the target string using the KMP algorithm with the skip
-     * table.
-     * 
-     * @param filename  The name of the file to search.
-     * @param target    The target string to search for.
-     * @param skipTable The skip table generated for the target string.
-     */
-    private static void searchFileWithSkipTable(String filename, String target, Map<Character, int[]> skipTable) {
+            // catch any IO exceptions
+        } catch (IOException e) {
 
-        // try with resources to read the file
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            // print error message
+            System.out.println("Error reading file: " + e.getMessage());
+            return;
+        }
+
+        // Check if there are no targets
+        if (targets.isEmpty()) {
+
+            // Print error message
+            System.out.println("Target string is empty.");
+            return;
+        }
+
+        // compile the targets into one automaton
+        AhoCorasick automaton = AhoCorasick.compile(targets);
+
+        // try with resources to read the file (or standard input)
+        try (BufferedReader reader = new BufferedReader(
+                filename.equals("-") ? new InputStreamReader(System.in) : new FileReader(filename))) {
 
             // declare line variable
             String line;
@@ -279,15 +647,22 @@ public class KMPSearch {
             // while there are lines to read
             while ((line = reader.readLine()) != null) {
 
-                // KMP search (using skip table) for the target in the line, storing indices in
-                // a list.
-                List<Integer> indices = kmpSearchWithSkipTable(line, target, skipTable);
+                // find the targets in the line
+                BitSet found = automaton.findTargets(line);
 
-                // if the target was found in the line
-                if (!indices.isEmpty()) {
+                // if any target was found in the line
+                if (found != null) {
 
-                    // print the 1-based index of the first occurrence and the line
-                    System.out.println(indices.get(0) + " " + line);
+                    // build the comma-separated target numbers
+                    StringBuilder numbers = new StringBuilder();
+                    for (int t = found.nextSetBit(0); t >= 0; t = found.nextSetBit(t + 1)) {
+                        if (numbers.length() > 0)
+                            numbers.append(',');
+                        numbers.append(t + 1);
+                    }
+
+                    // print the target numbers and the line
+                    System.out.println(numbers + " " + line);
                 }
             }
 
@@ -300,132 +675,155 @@ public class KMPSearch {
     }
 
     /**
-     * Performs KMP search on the given text using the provided pattern and skip
-     * table.
-     * 
-     * @param text      the text to search in.
-     * @param pattern   the pattern to search for.
-     * @param skipTable the skip table generated for the pattern.
-     * @return a list of indices (1-based) where the pattern occurs in the text.
+     * Searches the memory-mapped file for the target in raw bytes, printing
+     * lines with the target the same way as searchFileWithSkipTable.
+     *
+     * @param filename The name of the file to search.
+     * @param target   The target string to search for (not empty).
+     * @param threads  The number of threads to search on.
      */
-    private static List<Integer> kmpSearchWithSkipTable(String text, String pattern, Map<Character, int[]> skipTable) {
+    private static void searchMappedFile(String filename, String target, int threads) {
 
-        // initialise list for indices of pattern occurrences
-        List<Integer> indices = new ArrayList<>();
+        // try-catch block
+        try {
 
-        // get text and pattern lengths
-        int n = text.length();
-        int m = pattern.length();
+            // create the search of the file's bytes in the default charset
+            MappedFileSearch search = new MappedFileSearch(target, Charset.defaultCharset());
 
-        // initialise text index
-        int i = 0;
+            // check if searching on more than one thread
+            if (threads > 1) {
 
-        // initialise pattern index
-        int j = 0;
+                // search the file in chunks, in parallel
+                new ParallelFileSearch(search, threads).search(Paths.get(filename), System.out);
 
-        // loop through text until the end
-        while (i <= n - m) {
+                // else search the file in order
+            } else {
+                search.search(Paths.get(filename), System.out);
+            }
 
-            // set pattern index to 0
-            j = 0;
+            // catch any IO exceptions
+        } catch (IOException | InvalidPathException e) {
 
-            // while within pattern bounds and characters match
-            while (j < m && i + j < n && text.charAt(i + j) == pattern.charAt(j)) {
+            // print error message
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
 
-                // move to next character in pattern
-                j++;
-            }
+    /**
+     * Matches the target against the file (or standard input) as a stream of
+     * bytes, printing the line and byte offset of every occurrence as soon as
+     * the bytes are read.
+     *
+     * @param filename    The name of the file to search, or "-".
+     * @param target      The target string to search for.
+     * @param acrossLines Whether matches may span line breaks.
+     */
+    private static void searchStream(String filename, String target, boolean acrossLines) {
 
-            // check if full pattern is found
-            if (j == m) {
+        // get the charset of the input
+        Charset charset = Charset.defaultCharset();
+
+        // check if the target is empty (there is nothing to report)
+        if (target.isEmpty()) {
+            return;
+        }
 
-                // add index to list
-                indices.add(i + 1);
+        // check if the target can't be matched in raw bytes
+        if (!MappedFileSearch.supports(charset, target)) {
 
-                // increment text index
-                i++;
+            // print error message
+            System.out.println("Error: the target can't be matched in the " + charset + " charset.");
+            return;
+        }
 
-                // if mismatch occurs
-            } else if (i + j < n) {
+        // create the matcher
+        StreamMatcher matcher = new StreamMatcher(target, charset, acrossLines);
 
-                // get the mismatched character
-                char mismatchedChar = text.charAt(i + j);
+        // try with resources to open the file (or standard input)
+        try (InputStream in = filename.equals("-") ? System.in : new FileInputStream(filename)) {
 
-                // set skip to 1 (default)
-                int skip = 1;
+            // initialise buffer for each chunk
+            byte[] buffer = new byte[1 << 16];
+            int read;
 
-                // check if mismatched character is in skip table
-                if (skipTable.containsKey(mismatchedChar)) {
+            // while there are bytes to read (a pipe returns what is available)
+            while ((read = in.read(buffer)) >= 0) {
 
-                    // get the skip value for the mismatched character
-                    skip = skipTable.get(mismatchedChar)[j];
+                // feed the chunk to the matcher
+                int matches = matcher.feed(buffer, 0, read, System.out);
 
-                    // if the mismatched character is not in the skip table
-                } else {
+                // check if anything was printed
+                if (matches > 0) {
 
-                    // get the skip value for '*'
-                    skip = skipTable.get('*')[j];
+                    // flush the matches so they are seen straight away
+                    System.out.flush();
                 }
+            }
 
-                // increment text index by the skip value (to skip characters)
-                i += skip;
-
-                // if end of the text is reached
-            } else {
+            // catch any IO exceptions
+        } catch (IOException e) {
 
-                // break the loop
-                break;
-            }
+            // print error message
+            System.out.println("Error reading file: " + e.getMessage());
         }
-
-        // return list of indices (where the pattern occurs in the text).
-        return indices;
     }
 
     /**
-     * Builds the KMP prefix (failure) table for the pattern.
-     * prefix[i] holds the length of the longest proper prefix which is also a
-     * suffix for pattern[0..i].
+     * Performs KMP search on the given text using the provided pattern and skip
+     * table, reading each character once and moving through the automaton's
+     * transition table until the pattern is first found.
      * 
-     * @param pattern The pattern for which to build the prefix table.
-     * @return The prefix table as an array of integers.
+     * @param text      the text to search in.
+     * @param pattern   the pattern to search for.
+     * @param skipTable the skip table generated for the pattern.
+     * @return the 1-based index of the first occurrence of the pattern in the
+     *         text, or 0 if it doesn't occur.
      */
-    private static int[] buildKmpTable(String pattern) {
+    private static int kmpSearchWithSkipTable(String text, String pattern, KMPAutomaton skipTable) {
 
-        // get pattern length
+        // get text and pattern lengths
+        int n = text.length();
         int m = pattern.length();
 
-        // initialise prefix table of size m
-        int[] table = new int[m];
+        // check if the pattern is empty
+        if (m == 0) {
 
-        // set first value of prefix table to 0
-        table[0] = 0;
+            // an empty pattern occurs at the first index
+            return 1;
+        }
 
-        // set variable for prefix index
-        int j = 0;
+        // get the first character of the pattern
+        char first = pattern.charAt(0);
 
-        // loop through pattern from index 1 to m - 1
-        for (int i = 1; i < m; i++) {
+        // initialise state (number of pattern characters matched)
+        int state = 0;
 
-            // while there is a mismatch and j > 0
-            while (j > 0 && pattern.charAt(i) != pattern.charAt(j)) {
+        // loop through each character in the text
+        for (int i = 0; i < n; i++) {
 
-                // backtrack using the prefix table
-                j = table[j - 1];
-            }
+            // check if nothing is matched (the state stays 0 until the first character)
+            if (state == 0) {
 
-            // if there is a match
-            if (pattern.charAt(i) == pattern.charAt(j)) {
+                // skip to the next occurrence of the first character (String.indexOf is vectorised)
+                i = text.indexOf(first, i);
 
-                // increment prefix index
-                j++;
+                // check if there are no more candidates
+                if (i < 0)
+                    break;
             }
 
-            // store the prefix length in the table
-            table[i] = j;
+            // move to the next state on the character
+            state = skipTable.next(state, text.charAt(i));
+
+            // check if full pattern is found
+            if (state == m) {
+
+                // return the 1-based start index
+                return i - m + 2;
+            }
         }
 
-        // return the prefix table
-        return table;
+        // return 0 (the pattern doesn't occur in the text)
+        return 0;
     }
 }
@@ -0,0 +1,252 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Searches a whole file for the target in raw bytes (--mmap). The file is
+ * memory-mapped and the automaton (compiled from the target's bytes) runs over
+ * it without decoding anything or splitting it into lines. Only when a match is
+ * found are the surrounding line terminators looked for, and that one line
+ * decoded and printed, so the output is the same as the line-by-line search.
+ *
+ * Matches are found with a CandidateFilter, so the automaton only checks the
+ * positions around the target's rarest byte.
+ *
+ * Lines end at '\n' or '\r' (like BufferedReader), and the file's charset must
+ * encode them as single bytes (UTF-8, ISO-8859-1 and ASCII do).
+ */
+class MappedFileSearch {
+
+    // Largest number of bytes mapped at once
+    private static final long MAX_WINDOW = Integer.MAX_VALUE;
+
+    // Declare variables
+    private final KMPAutomaton automaton;
+    private final byte[] bytes;
+    private final Charset charset;
+    private final int length;
+    private final boolean spansLines;
+
+    /**
+     * Constructor for the MappedFileSearch class.
+     *
+     * @param target  The target string (not empty).
+     * @param charset The charset of the files searched.
+     */
+    MappedFileSearch(String target, Charset charset) {
+
+        // get the target's bytes in the file's charset
+        byte[] bytes = target.getBytes(charset);
+
+        // Initialise variables (the bytes are compiled as the chars 0 to 255)
+        this.automaton = KMPAutomaton.compile(new String(bytes, StandardCharsets.ISO_8859_1));
+        this.bytes = bytes;
+        this.charset = charset;
+        this.length = bytes.length;
+        this.spansLines = target.indexOf('\n') >= 0 || target.indexOf('\r') >= 0;
+    }
+
+    /**
+     * Checks if a target can be searched for in raw bytes of a charset: line
+     * terminators must be single ASCII bytes, and the target must encode in the
+     * charset (else the decoded lines would hold replacement characters).
+     *
+     * @param charset The charset.
+     * @param target  The target string.
+     * @return true if the search is supported.
+     */
+    static boolean supports(Charset charset, String target) {
+
+        // Check that "\r\n" encodes as the two ASCII bytes
+        if (!charset.canEncode() || !Arrays.equals("\r\n".getBytes(charset), new byte[] { '\r', '\n' })) {
+            return false;
+        }
+
+        // Check that the target decodes back from its bytes unchanged
+        return new String(target.getBytes(charset), charset).equals(target);
+    }
+
+    /**
+     * Searches a file, printing each line with the target as the 1-based index
+     * of the first occurrence and the line.
+     *
+     * @param file The file to search.
+     * @param out  The stream to print matching lines to.
+     * @throws IOException If an I/O error occurs.
+     */
+    void search(Path file, PrintStream out) throws IOException {
+
+        // Check if the target contains a line terminator (no line can contain it)
+        if (spansLines) {
+
+            // return from the method
+            return;
+        }
+
+        // try with resources to open the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // get the size of the file
+            long size = channel.size();
+
+            // initialise the candidate filter (created from the first window)
+            CandidateFilter filter = null;
+
+            // initialise the position of the next window
+            long position = 0;
+
+            // while there are bytes to search
+            while (position < size) {
+
+                // map the next window of the file
+                long window = Math.min(size - position, MAX_WINDOW);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+
+                // initialise the end of the window's whole lines
+                int end = (int) window;
+
+                // check if the window doesn't reach the end of the file
+                if (position + window < size) {
+
+                    // end the window after its last line terminator
+                    end = lineStart(buffer, end);
+
+                    // check if there was no terminator in the window
+                    if (end == 0) {
+
+                        // Throw an exception
+                        throw new IOException("Line too long to search at byte " + position);
+                    }
+                }
+
+                // create the filter, with byte frequencies from the start of the file
+                if (filter == null)
+                    filter = filter(buffer);
+
+                // search the window's lines
+                searchRange(filter, buffer, 0, end, out);
+
+                // move past the lines searched
+                position += end;
+            }
+        }
+    }
+
+    /**
+     * Checks if the target contains a line terminator (no line can contain it).
+     *
+     * @return true if the target spans lines.
+     */
+    boolean spansLines() {
+        return spansLines;
+    }
+
+    /**
+     * Creates a candidate filter for the target.
+     *
+     * @param sample Text to count byte frequencies in.
+     * @return The filter.
+     */
+    CandidateFilter filter(ByteBuffer sample) {
+        return new CandidateFilter(automaton, bytes, sample);
+    }
+
+    /**
+     * Searches the whole lines in bytes [from, to) of a buffer, printing each
+     * line with the target as the 1-based index of the first occurrence and the
+     * line.
+     *
+     * @param filter The candidate filter (see filter).
+     * @param buffer The buffer.
+     * @param from   The index of the start of the first line.
+     * @param to     The index after the end of the last line.
+     * @param out    The stream to print matching lines to.
+     */
+    void searchRange(CandidateFilter filter, ByteBuffer buffer, int from, int to, PrintStream out) {
+
+        // initialise the search position
+        int position = from;
+
+        // while there are bytes to search
+        while (position < to) {
+
+            // find the next match
+            int last = filter.find(buffer, position, to);
+
+            // check if there are no more matches
+            if (last < 0) {
+
+                // break the loop
+                break;
+            }
+
+            // get the start of the match
+            int start = last - length + 1;
+
+            // find the start of the match's line
+            int lineStart = start;
+            while (lineStart > from && !isTerminator(buffer.get(lineStart - 1))) {
+                lineStart--;
+            }
+
+            // find the end of the match's line
+            int lineEnd = last + 1;
+            while (lineEnd < to && !isTerminator(buffer.get(lineEnd))) {
+                lineEnd++;
+            }
+
+            // get the 1-based index of the match in the decoded line
+            int index = decode(buffer, lineStart, start).length() + 1;
+
+            // print the index and the line
+            out.println(index + " " + decode(buffer, lineStart, lineEnd));
+
+            // continue after the line (only the first occurrence is printed)
+            position = lineEnd;
+        }
+    }
+
+    /**
+     * Returns the index after the last line terminator before the given index,
+     * or 0 if there is none.
+     */
+    static int lineStart(ByteBuffer buffer, int end) {
+
+        // loop back from the end
+        for (int i = end; i > 0; i--) {
+
+            // check if the byte before ends a line
+            if (isTerminator(buffer.get(i - 1))) {
+
+                // return the index after it
+                return i;
+            }
+        }
+
+        // return 0 (no terminator)
+        return 0;
+    }
+
+    /**
+     * Checks if a byte ends a line.
+     */
+    private static boolean isTerminator(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    /**
+     * Decodes bytes [from, to) of a buffer.
+     */
+    private String decode(ByteBuffer buffer, int from, int to) {
+        return charset.decode(buffer.slice(from, to - from)).toString();
+    }
+}
@@ -0,0 +1,374 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Searches many files at once: several filenames, directories (searched
+ * recursively) and glob patterns such as "logs/*.log" or "logs/**.gz".
+ *
+ * The names are expanded into a list of files (each directory's and pattern's
+ * files sorted by path, and each file once), and each file is searched by its
+ * own task, on a virtual thread when the JVM has them (Java 21) or else on a
+ * pool of jobs threads. A semaphore lets only jobs files be read at once.
+ * Each task prints into its own buffer, and the buffers are printed in list
+ * order, so the output is the same however the tasks are scheduled. Only
+ * 2 * jobs files are in flight at a time (the oldest is printed before the
+ * next is submitted), so memory doesn't grow with the number of files. The
+ * compiled target is shared by all tasks (it is read-only).
+ */
+class MultiFileSearch {
+
+    /**
+     * A search of one file.
+     */
+    interface FileSearch {
+
+        /**
+         * Searches a file.
+         *
+         * @param filename The name of the file.
+         * @param out      The stream to print to.
+         * @return The number of lines with the target, or -1 if the file
+         *         couldn't be read.
+         */
+        long search(String filename, PrintStream out);
+    }
+
+    // Declare variables
+    private final FileSearch search;
+    private final int jobs;
+    private final boolean stopAtMatch;
+    private volatile boolean matched;
+    private volatile boolean failed;
+
+    /**
+     * Constructor for the MultiFileSearch class.
+     *
+     * @param search      The search to run on each file.
+     * @param jobs        The most files read at once.
+     * @param stopAtMatch Whether to skip the files not yet searched once any
+     *                    file has the target.
+     */
+    MultiFileSearch(FileSearch search, int jobs, boolean stopAtMatch) {
+
+        // Initialise variables
+        this.search = search;
+        this.jobs = jobs;
+        this.stopAtMatch = stopAtMatch;
+    }
+
+    /**
+     * Checks if names need a multi-file search: more than one name, a
+     * directory, or a glob pattern that isn't itself a file.
+     *
+     * @param names The filenames, directories and patterns.
+     * @return true if the names are more than one file.
+     */
+    static boolean isMultiple(List<String> names) {
+
+        // check if there is more than one name
+        if (names.size() > 1) {
+            return true;
+        }
+
+        // get the name (standard input is one file)
+        String name = names.get(0);
+        if (name.equals("-")) {
+            return false;
+        }
+
+        // try-catch block
+        try {
+
+            // check if the name is a directory, or a pattern that isn't a file
+            Path path = Paths.get(name);
+            return Files.isDirectory(path) || (isGlob(name) && !Files.exists(path));
+
+            // catch names that aren't paths
+        } catch (InvalidPathException e) {
+            return isGlob(name);
+        }
+    }
+
+    /**
+     * Expands filenames, directories and patterns into the files they name.
+     * A directory gives its files and its subdirectories' files, and a pattern
+     * the files below its fixed leading directories that it matches, each
+     * sorted by path. Other names (and patterns that match nothing) are kept
+     * as they are, so reading them reports the error. A file named more than
+     * once (by several arguments, or by different spellings of its path) is
+     * kept only where it first appears, so it is searched once.
+     *
+     * @param names The filenames, directories and patterns.
+     * @return The filenames.
+     * @throws IOException If a directory can't be read.
+     */
+    static List<String> expand(List<String> names) throws IOException {
+
+        // initialise map of files by normalised path (keeping the first name and its order)
+        Map<Path, String> files = new LinkedHashMap<>();
+
+        // loop through each name
+        for (String name : names) {
+
+            // get the files the name stands for
+            List<String> expanded = name.equals("-") ? Collections.emptyList()
+                    : Files.isDirectory(Paths.get(name)) ? walk(Paths.get(name), path -> true)
+                            : isGlob(name) && !Files.exists(Paths.get(name)) ? glob(name) : Collections.emptyList();
+
+            // add the files, or the name itself if there are none, unless already added
+            for (String file : expanded.isEmpty() ? List.of(name) : expanded) {
+                files.putIfAbsent(Paths.get(file).toAbsolutePath().normalize(), file);
+            }
+        }
+
+        // return list of files
+        return new ArrayList<>(files.values());
+    }
+
+    /**
+     * Checks if a name contains glob characters.
+     */
+    private static boolean isGlob(String name) {
+        return name.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0);
+    }
+
+    /**
+     * Finds the files a glob pattern matches, below the pattern's leading
+     * directories that have no glob characters.
+     */
+    private static List<String> glob(String pattern) throws IOException {
+
+        // split the pattern into its fixed leading directories and the rest
+        String[] parts = pattern.split("/", -1);
+        int fixed = 0;
+        while (fixed < parts.length - 1 && !isGlob(parts[fixed])) {
+            fixed++;
+        }
+        String base = String.join("/", Arrays.asList(parts).subList(0, fixed));
+        String rest = String.join("/", Arrays.asList(parts).subList(fixed, parts.length));
+
+        // get the directory to search (the current directory if there are no fixed parts)
+        Path dir = fixed == 0 ? Paths.get("") : Paths.get(base.isEmpty() ? "/" : base);
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+
+        // match the rest of the pattern against paths below the directory
+        PathMatcher matcher = dir.getFileSystem().getPathMatcher("glob:" + rest);
+        return walk(dir, path -> matcher.matches(dir.relativize(path)));
+    }
+
+    /**
+     * Finds the regular files below a directory that a filter accepts, sorted
+     * by path.
+     */
+    private static List<String> walk(Path dir, java.util.function.Predicate<Path> filter) throws IOException {
+
+        // try with resources to walk the directory tree
+        try (Stream<Path> paths = Files.walk(dir)) {
+
+            // return the sorted names of the matching files
+            return paths.filter(Files::isRegularFile).filter(filter).map(Path::toString).sorted()
+                    .collect(java.util.stream.Collectors.toList());
+        }
+    }
+
+    /**
+     * Searches the files concurrently, printing each file's output in order.
+     *
+     * @param files The filenames.
+     * @param out   The stream to print to.
+     * @return The total number of lines with the target.
+     */
+    long search(List<String> files, PrintStream out) {
+
+        // create the executor and the limit on files read at once
+        ExecutorService executor = newExecutor(jobs);
+        Semaphore permits = new Semaphore(jobs);
+
+        // initialise the queue of files being searched (in file order)
+        ArrayDeque<Future<Result>> pending = new ArrayDeque<>();
+
+        // try-finally block
+        try {
+
+            // initialise the total count
+            long total = 0;
+
+            // loop through each file
+            for (String file : files) {
+
+                // submit a task to search the file
+                pending.add(executor.submit(() -> searchFile(file, permits)));
+
+                // check if enough files are in flight
+                if (pending.size() >= 2 * jobs) {
+
+                    // print the oldest file's output (waiting for it to finish)
+                    total += print(pending.poll(), out);
+                }
+            }
+
+            // print the rest of the files' output in order
+            while (!pending.isEmpty()) {
+                total += print(pending.poll(), out);
+            }
+
+            // return the total count
+            return total;
+
+            // shut down the executor
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a file's result and prints its output.
+     *
+     * @return The file's count (0 if it couldn't be read).
+     */
+    private long print(Future<Result> future, PrintStream out) {
+
+        // wait for the result, and print the file's output
+        Result result = join(future);
+        out.print(result.output);
+
+        // check if the file couldn't be read
+        if (result.count < 0) {
+
+            // note the error
+            failed = true;
+            return 0;
+        }
+
+        // return the file's count
+        return result.count;
+    }
+
+    /**
+     * Checks if any file couldn't be read.
+     *
+     * @return true if there was an error.
+     */
+    boolean hadErrors() {
+        return failed;
+    }
+
+    /**
+     * The output and count of one file's search.
+     */
+    private static class Result {
+
+        // Declare variables
+        final String output;
+        final long count;
+
+        /**
+         * Constructor for the Result class.
+         */
+        Result(String output, long count) {
+
+            // Initialise variables
+            this.output = output;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Searches one file into a buffer, holding a permit while it is read.
+     */
+    private Result searchFile(String file, Semaphore permits) throws InterruptedException {
+
+        // check if a match was already found and the rest can be skipped
+        if (stopAtMatch && matched) {
+            return new Result("", 0);
+        }
+
+        // create the file's output buffer (UTF-8 holds any decoded line)
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream fileOut = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+
+        // wait for a permit to read the file
+        permits.acquire();
+
+        // initialise the count
+        long count;
+
+        // try-finally block
+        try {
+
+            // search the file
+            count = search.search(file, fileOut);
+
+            // release the permit
+        } finally {
+            permits.release();
+        }
+
+        // note a match
+        if (count > 0)
+            matched = true;
+
+        // return the lines printed and the count
+        fileOut.flush();
+        return new Result(bytes.toString(StandardCharsets.UTF_8), count);
+    }
+
+    /**
+     * Waits for a file's result.
+     */
+    private static Result join(Future<Result> future) {
+
+        // try-catch block
+        try {
+
+            // wait for the result
+            return future.get();
+
+            // catch an interrupt
+        } catch (InterruptedException e) {
+
+            // keep the interrupt, and give up on the search
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+
+            // catch an exception thrown by the task
+        } catch (ExecutionException e) {
+
+            // rethrow it
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread if the JVM
+     * has them (Java 21), or else on a pool of threads.
+     *
+     * @param threads The number of threads in the pool.
+     * @return The executor.
+     */
+    private static ExecutorService newExecutor(int threads) {
+
+        // try-catch block
+        try {
+
+            // look up and call the virtual thread executor
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+
+            // catch a JVM without virtual threads
+        } catch (ReflectiveOperationException e) {
+
+            // use a pool of threads
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+}
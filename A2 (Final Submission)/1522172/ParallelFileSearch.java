@@ -0,0 +1,158 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Searches a memory-mapped file on several threads (--threads=N). The file is
+ * split into chunks of whole lines, each chunk is searched by a task on a
+ * ForkJoin pool into its own output buffer, and the buffers are printed in file
+ * order, so the output is the same as MappedFileSearch's byte for byte.
+ *
+ * The automaton and candidate filter are shared (they are read-only, and each
+ * search keeps its state in locals), and at most two chunks per thread are in
+ * flight at once, so memory stays bounded however large the file is.
+ */
+class ParallelFileSearch {
+
+    // Size of a chunk (it is extended to the end of its last line)
+    private static final int CHUNK_SIZE = 1 << 23;
+
+    // Declare variables
+    private final MappedFileSearch search;
+    private final int threads;
+
+    /**
+     * Constructor for the ParallelFileSearch class.
+     *
+     * @param search  The search to run on each chunk.
+     * @param threads The number of threads.
+     */
+    ParallelFileSearch(MappedFileSearch search, int threads) {
+
+        // Initialise variables
+        this.search = search;
+        this.threads = threads;
+    }
+
+    /**
+     * Searches a file, printing each line with the target as the 1-based index
+     * of the first occurrence and the line.
+     *
+     * @param file The file to search.
+     * @param out  The stream to print matching lines to.
+     * @throws IOException If an I/O error occurs.
+     */
+    void search(Path file, PrintStream out) throws IOException {
+
+        // Check if the target contains a line terminator (no line can contain it)
+        if (search.spansLines()) {
+
+            // return from the method
+            return;
+        }
+
+        // create the pool, and the queue of chunks being searched (in file order)
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ArrayDeque<ForkJoinTask<String>> pending = new ArrayDeque<>();
+
+        // try with resources to open the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // get the size of the file
+            long size = channel.size();
+
+            // initialise the candidate filter (created from the first chunk)
+            CandidateFilter filter = null;
+
+            // initialise the position of the next chunk
+            long position = 0;
+
+            // while there are bytes to search
+            while (position < size) {
+
+                // initialise the chunk's size and the end of its whole lines
+                long limit = Math.min(size - position, Integer.MAX_VALUE);
+                long window = 0;
+                int end = 0;
+
+                // map the next chunk, growing it until it holds a whole line
+                MappedByteBuffer buffer = null;
+                while (end == 0) {
+
+                    // check if the chunk can't grow any more
+                    if (window == limit) {
+
+                        // Throw an exception
+                        throw new IOException("Line too long to search at byte " + position);
+                    }
+
+                    // map the chunk at twice the size (or the first size)
+                    window = Math.min(limit, window == 0 ? CHUNK_SIZE : window * 2);
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+
+                    // end the chunk at the end of the file, or after its last line terminator
+                    end = position + window == size ? (int) window : MappedFileSearch.lineStart(buffer, (int) window);
+                }
+
+                // create the filter, with byte frequencies from the start of the file
+                if (filter == null)
+                    filter = search.filter(buffer);
+
+                // submit a task to search the chunk
+                pending.add(pool.submit(task(filter, buffer, end)));
+
+                // move past the chunk
+                position += end;
+
+                // check if enough chunks are in flight
+                if (pending.size() >= 2 * threads) {
+
+                    // print the oldest chunk's lines (waiting for it to finish)
+                    out.print(pending.poll().join());
+                }
+            }
+
+            // print the rest of the chunks' lines in order
+            while (!pending.isEmpty()) {
+                out.print(pending.poll().join());
+            }
+
+            // shut down the pool
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a task that searches bytes [0, end) of a chunk into a buffer.
+     *
+     * @param filter The candidate filter.
+     * @param buffer The chunk.
+     * @param end    The index after the end of the chunk's last line.
+     * @return The task, returning what the chunk would print.
+     */
+    private ForkJoinTask<String> task(CandidateFilter filter, MappedByteBuffer buffer, int end) {
+        return ForkJoinTask.adapt(() -> {
+
+            // create the chunk's output buffer (UTF-8 holds any decoded line)
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream chunkOut = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+
+            // search the chunk's lines
+            search.searchRange(filter, buffer, 0, end, chunkOut);
+
+            // return the lines printed
+            chunkOut.flush();
+            return bytes.toString(StandardCharsets.UTF_8);
+        });
+    }
+}
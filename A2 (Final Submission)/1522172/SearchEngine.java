@@ -0,0 +1,73 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+/**
+ * A string search algorithm compiled for one target (--engine). Every engine
+ * finds the same first occurrence, so they only differ in speed:
+ *
+ * kmp: the KMP automaton, which reads every character of the text once.
+ * bmh: Boyer-Moore-Horspool, which compares the target from its last
+ * character and skips ahead by up to the target length on a mismatch, so it
+ * reads only a fraction of the text for long targets over large alphabets.
+ * twoway: Crochemore-Perrin Two-Way, which also skips but stays linear in the
+ * worst case (small alphabets and repetitive targets, where BMH slows down).
+ * auto: chooses by the target's length and number of distinct characters.
+ */
+interface SearchEngine {
+
+    /**
+     * Finds the first occurrence of the target at or after a position.
+     *
+     * @param text The text to search.
+     * @param from The 0-based index to start at.
+     * @return The 0-based index of the occurrence, or -1 if there is none.
+     */
+    int indexOf(String text, int from);
+
+    /**
+     * Creates the named engine for a target.
+     *
+     * @param name   The engine name: kmp, bmh, twoway or auto.
+     * @param target The target string.
+     * @return The engine.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    static SearchEngine create(String name, String target) {
+
+        // check which engine was named
+        switch (name) {
+            case "kmp":
+                return KMPAutomaton.compile(target);
+            case "bmh":
+                return new HorspoolSearch(target);
+            case "twoway":
+                return new TwoWaySearch(target);
+            case "auto":
+                return create(choose(target), target);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + name);
+        }
+    }
+
+    /**
+     * Chooses an engine for a target: KMP for very short targets (nothing to
+     * skip), Two-Way for small alphabets such as DNA (BMH's skips are short and
+     * its worst case quadratic), and BMH otherwise (natural-language text).
+     *
+     * @param target The target string.
+     * @return The engine name.
+     */
+    static String choose(String target) {
+
+        // check if the target is too short to skip anything
+        if (target.length() < 3) {
+            return "kmp";
+        }
+
+        // count the distinct characters in the target
+        long distinct = target.chars().distinct().count();
+
+        // choose Two-Way for small alphabets, else BMH
+        return distinct < 8 ? "twoway" : "bmh";
+    }
+}
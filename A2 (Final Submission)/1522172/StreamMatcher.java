@@ -0,0 +1,122 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Matches the target against a stream of bytes fed in chunks of any size
+ * (--stream), such as a pipe from tail -f or a decompressor. The automaton's
+ * state is kept between chunks, so a match split across two reads is still
+ * found, and nothing is buffered: memory is constant however long the stream
+ * or its lines are.
+ *
+ * Every occurrence is reported as
+ *
+ * line:offset
+ *
+ * where line is the 1-based line number of the match's first byte (lines end
+ * at '\n') and offset the 0-based byte offset of that byte in the stream.
+ * Normally a match must lie within one line; with --across-lines the target
+ * may contain line breaks and match across them.
+ */
+class StreamMatcher {
+
+    // Declare variables
+    private final KMPAutomaton automaton;
+    private final int length;
+    private final int targetNewlines;
+    private final boolean never;
+    private int state;
+    private long offset;
+    private long line = 1;
+
+    /**
+     * Constructor for the StreamMatcher class.
+     *
+     * @param target      The target string (not empty).
+     * @param charset     The charset of the stream.
+     * @param acrossLines Whether a match may contain line breaks.
+     */
+    StreamMatcher(String target, Charset charset, boolean acrossLines) {
+
+        // get the target's bytes in the stream's charset
+        byte[] bytes = target.getBytes(charset);
+
+        // count the line breaks in the target
+        int newlines = 0;
+        for (byte b : bytes) {
+            if (b == '\n')
+                newlines++;
+        }
+
+        // Initialise variables (the bytes are compiled as the chars 0 to 255)
+        this.automaton = KMPAutomaton.compile(new String(bytes, StandardCharsets.ISO_8859_1));
+        this.length = bytes.length;
+        this.targetNewlines = newlines;
+        this.never = newlines > 0 && !acrossLines;
+    }
+
+    /**
+     * Feeds the next chunk of the stream, printing each match it completes.
+     *
+     * @param bytes The chunk's buffer.
+     * @param from  The index of the chunk's first byte.
+     * @param to    The index after the chunk's last byte.
+     * @param out   The stream to print matches to.
+     * @return The number of matches printed.
+     */
+    int feed(byte[] bytes, int from, int to, PrintStream out) {
+
+        // initialise count of matches
+        int matches = 0;
+
+        // loop through each byte of the chunk
+        for (int i = from; i < to; i++) {
+
+            // get the byte
+            byte b = bytes[i];
+
+            // move to the next state
+            state = automaton.next(state, (char) (b & 0xFF));
+
+            // count a line break
+            if (b == '\n')
+                line++;
+
+            // check if full target is found
+            if (state == length && !never) {
+
+                // print the line and offset of the match's first byte
+                out.println((line - targetNewlines) + ":" + (offset + (i - from) - length + 1));
+                matches++;
+            }
+        }
+
+        // move the offset past the chunk
+        offset += to - from;
+
+        // return the count of matches
+        return matches;
+    }
+
+    /**
+     * Get the number of bytes fed so far.
+     *
+     * @return The offset of the next byte.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the current line number.
+     *
+     * @return The 1-based number of the line the next byte is on.
+     */
+    long getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,67 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds a byte 8 at a time (SWAR: SIMD within a register). Each long read
+ * from the buffer is XORed with the byte repeated 8 times, so matching bytes
+ * become zero, and a zero byte is flagged in its high bit by
+ *
+ * ~(((x & 0x7F..7F) + 0x7F..7F) | x | 0x7F..7F)
+ *
+ * which, unlike the shorter (x - 0x01..01) & ~x form, has no false flags, so
+ * the first flag is the first match.
+ */
+class SwarByteScanner implements ByteScanner {
+
+    // Each byte's low 7 bits
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    // The byte 0x01 repeated, to repeat a byte across a long
+    private static final long ONES = 0x0101010101010101L;
+
+    @Override
+    public int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+
+        // repeat the byte across a long
+        long pattern = (b & 0xFFL) * ONES;
+
+        // check the order longs are read in (the first byte is the high byte if big-endian)
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+
+        // initialise the index
+        int i = from;
+
+        // loop through each whole long
+        for (; i <= to - Long.BYTES; i += Long.BYTES) {
+
+            // zero the matching bytes
+            long x = buffer.getLong(i) ^ pattern;
+
+            // flag the zero bytes in their high bits
+            long flags = ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+
+            // check if any byte matched
+            if (flags != 0) {
+
+                // return the index of the first one
+                return i + (bigEndian ? Long.numberOfLeadingZeros(flags) : Long.numberOfTrailingZeros(flags)) / 8;
+            }
+        }
+
+        // loop through each byte left over
+        for (; i < to; i++) {
+
+            // check if the byte matches
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+
+        // return -1 (not found)
+        return -1;
+    }
+}
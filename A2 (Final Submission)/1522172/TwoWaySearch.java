@@ -0,0 +1,163 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+/**
+ * Crochemore-Perrin Two-Way search (--engine=twoway). The target is split at a
+ * critical position found from its two maximal suffixes (under the character
+ * order and its reverse). Each attempt compares the right part left to right,
+ * then the left part right to left. A mismatch in the right part shifts by how
+ * far it got, and a full match shifts by the target's period, remembering how
+ * much of the left part is already known to match when the target is
+ * periodic. The search uses constant extra space and is linear in the worst
+ * case, yet skips ahead like Boyer-Moore on typical text.
+ */
+class TwoWaySearch implements SearchEngine {
+
+    // Declare variables
+    private final String target;
+    private final int ell;
+    private final int period;
+    private final boolean periodic;
+
+    /**
+     * Constructor for the TwoWaySearch class.
+     *
+     * @param target The target string.
+     */
+    TwoWaySearch(String target) {
+
+        // get target length
+        int m = target.length();
+
+        // find the maximal suffixes under both orders, with their periods
+        int[] forward = maximalSuffix(target, false);
+        int[] reverse = maximalSuffix(target, true);
+
+        // take the later one as the critical position (ell is the end of the left part)
+        int ell = forward[0] > reverse[0] ? forward[0] : reverse[0];
+        int period = forward[0] > reverse[0] ? forward[1] : reverse[1];
+
+        // check if the left part repeats at the period (the target is periodic)
+        boolean periodic = ell + 1 + period <= m && target.regionMatches(0, target, period, ell + 1);
+
+        // Initialise variables (a non-periodic target shifts by a lower bound of its period)
+        this.target = target;
+        this.ell = ell;
+        this.periodic = periodic;
+        this.period = periodic ? period : Math.max(ell + 1, m - ell - 1) + 1;
+    }
+
+    /**
+     * Finds the maximal suffix of a string under the character order (or its
+     * reverse), and the period of that suffix.
+     *
+     * @param x       The string.
+     * @param reverse Whether to use the reverse order.
+     * @return The index before the suffix starts (-1 for the whole string) and
+     *         the period.
+     */
+    private static int[] maximalSuffix(String x, boolean reverse) {
+
+        // initialise the candidate, the comparison offset and the period
+        int ms = -1;
+        int j = 0;
+        int k = 1;
+        int p = 1;
+
+        // while the comparison is within the string
+        while (j + k < x.length()) {
+
+            // get the characters to compare
+            char a = x.charAt(j + k);
+            char b = x.charAt(ms + k);
+
+            // check if the new suffix is smaller under the order
+            if (reverse ? a > b : a < b) {
+
+                // skip past it; the period grows to the whole prefix
+                j += k;
+                k = 1;
+                p = j - ms;
+
+                // check if the characters are equal
+            } else if (a == b) {
+
+                // continue the comparison, or move on by a whole period
+                if (k != p) {
+                    k++;
+                } else {
+                    j += p;
+                    k = 1;
+                }
+
+                // else the new suffix is larger, and becomes the candidate
+            } else {
+                ms = j;
+                j = ms + 1;
+                k = 1;
+                p = 1;
+            }
+        }
+
+        // return the suffix position and its period
+        return new int[] { ms, p };
+    }
+
+    @Override
+    public int indexOf(String text, int from) {
+
+        // get text and target lengths
+        int n = text.length();
+        int m = target.length();
+
+        // check if the target is empty (it occurs at the start)
+        if (m == 0) {
+            return from <= n ? from : -1;
+        }
+
+        // initialise the text index of the target's start, and how much of the left part is known to match
+        int j = from;
+        int memory = -1;
+
+        // while the target fits in the rest of the text
+        while (j <= n - m) {
+
+            // compare the right part left to right (past what is known to match)
+            int i = Math.max(ell, memory) + 1;
+            while (i < m && target.charAt(i) == text.charAt(i + j)) {
+                i++;
+            }
+
+            // check if the right part mismatched
+            if (i < m) {
+
+                // shift past the characters that matched
+                j += i - ell;
+                memory = -1;
+                continue;
+            }
+
+            // compare the left part right to left (down to what is known to match)
+            i = ell;
+            while (i > memory && target.charAt(i) == text.charAt(i + j)) {
+                i--;
+            }
+
+            // check if the whole target matched
+            if (i <= memory) {
+
+                // return the index of the occurrence
+                return j;
+            }
+
+            // shift by the period
+            j += period;
+
+            // remember the prefix that still matches after a periodic shift
+            memory = periodic ? m - period - 1 : -1;
+        }
+
+        // return -1 (not found)
+        return -1;
+    }
+}
@@ -0,0 +1,63 @@
+// ID: 1522172
+// Name: Hiran Greening
+
+// Import statements
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Finds a byte a SIMD register at a time (32 bytes with AVX2, 64 with
+ * AVX-512) using the incubating Vector API. It is kept apart from the other
+ * classes because it needs the incubator module to compile and run:
+ *
+ * javac --add-modules jdk.incubator.vector -cp . -d . vector/VectorByteScanner.java
+ * java --add-modules jdk.incubator.vector KMPSearch --mmap "target" file.txt
+ *
+ * It reads vectors with ByteVector.fromByteBuffer, which the incubator API
+ * only has in JDK 17 and 18 (JDK 19 replaced it with fromMemorySegment), so it
+ * builds and runs on those two releases only. Without the module, or on a
+ * later JDK, ByteScanner.create falls back to SwarByteScanner.
+ */
+public class VectorByteScanner implements ByteScanner {
+
+    // The widest vector shape the CPU supports
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+
+        // initialise the index
+        int i = from;
+
+        // loop through each whole vector
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+
+            // compare every byte of the vector with the byte
+            VectorMask<Byte> matches = ByteVector.fromByteBuffer(SPECIES, buffer, i, ByteOrder.nativeOrder())
+                    .compare(VectorOperators.EQ, b);
+
+            // check if any byte matched
+            if (matches.anyTrue()) {
+
+                // return the index of the first one
+                return i + matches.firstTrue();
+            }
+        }
+
+        // loop through each byte left over
+        for (; i < to; i++) {
+
+            // check if the byte matches
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+
+        // return -1 (not found)
+        return -1;
+    }
+}